@@ -5,6 +5,8 @@ module org.nico.quoted {
     requires static lombok;
     requires jakarta.persistence;
     requires org.hibernate.orm.core;
+    requires java.sql;
+    requires com.zaxxer.hikari;
 
     // Required for Hibernate
     requires net.bytebuddy;
@@ -18,4 +20,12 @@ module org.nico.quoted {
     opens org.nico.quoted.ui.controller to javafx.fxml;
     opens org.nico.quoted.ui.controller.form to javafx.fxml;
     opens org.nico.quoted.domain to org.hibernate.orm.core;
+
+    // Storage engines, see StorageProvider; other modules may provide more
+    exports org.nico.quoted.domain;
+    exports org.nico.quoted.repository;
+    uses org.nico.quoted.repository.StorageProvider;
+    provides org.nico.quoted.repository.StorageProvider with
+            org.nico.quoted.repository.JpaStorageProvider,
+            org.nico.quoted.repository.memory.MemoryStorageProvider;
 }
\ No newline at end of file
@@ -1,36 +1,103 @@
 package org.nico.quoted;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import lombok.extern.slf4j.Slf4j;
+import org.nico.quoted.config.DBConfig;
+import org.nico.quoted.repository.CacheStatistics;
+import org.nico.quoted.repository.StorageProvider;
+import org.nico.quoted.ui.controller.BaseController;
 import org.nico.quoted.util.FormUtil;
+import org.nico.quoted.util.StartupTimer;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import static org.nico.quoted.config.UIConfig.*;
 
+// The window is shown with a loading state right away, while the storage, e.g. the EntityManagerFactory, boots in the
+// background. The main view replaces it once the storage is ready, and quotes appear in it as they are read.
+
 @Slf4j
 public class QuoteApplication extends Application {
+    private final Label loadingLabel = new Label("Connecting to the database ...");
+    private CompletableFuture<Void> storage; // Booted in the background
+
     @Override
-    public void start(Stage stage) throws IOException {
+    public void start(Stage stage) {
         log.info("Starting application");
+        storage = StorageProvider.find(DBConfig.STORAGE).boot();
+
+        Scene scene = new Scene(loadingView(), WINDOW_WIDTH, WINDOW_HEIGHT);
+        FormUtil.addCssToScene(scene);
+
+        stage.setTitle(APP_NAME + " - Loading ...");
+        stage.setScene(scene);
+        stage.show();
+
+        storage.thenRunAsync(() -> showMainView(stage), Platform::runLater)
+                .exceptionally(e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    log.error("Could not start: " + cause.getMessage());
+                    cause.printStackTrace();
+                    Platform.runLater(() -> loadingLabel.setText("Could not start: " + cause.getMessage()));
+                    return null;
+                });
+    }
+
+    private Parent loadingView() {
+        VBox loadingView = new VBox(10, new ProgressIndicator(), loadingLabel);
+        loadingView.setStyle("-fx-alignment: center;");
+        return loadingView;
+    }
+
+    private void showMainView(Stage stage) {
         FXMLLoader fxmlLoader = new FXMLLoader();
         fxmlLoader.setLocation(
                 Objects.requireNonNull(
                         getClass().getResource("main-view.fxml")));
-        Scene scene = new Scene(fxmlLoader.load(), WINDOW_WIDTH, WINDOW_HEIGHT);
+        Parent mainView = StartupTimer.time("FXML load", () -> {
+            try {
+                return fxmlLoader.load();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        stage.getScene().setRoot(mainView);
 
-        FormUtil.addCssToScene(scene);
+        BaseController.loadModel().whenComplete((nothing, e) -> {
+            if (e != null) {
+                log.error("Could not load quotes: " + e.getMessage());
+                e.printStackTrace();
+            }
+            stage.setTitle(APP_NAME);
+            StartupTimer.finish();
+            if (EXIT_AFTER_STARTUP)
+                Platform.exit();
+        });
+    }
 
-        stage.setTitle(APP_NAME);
-        stage.setScene(scene);
-        stage.show();
+    @Override
+    public void stop() {
+        log.info("Stopping application");
+        BaseController.closeViews();
+        if (storage != null && storage.isDone() && !storage.isCompletedExceptionally())
+            BaseController.closeModel();
+        if (DBConfig.CACHE_STATISTICS && DBConfig.isBooted())
+            log.info(CacheStatistics.of(DBConfig.entityManagerFactory()).toString());
+        DBConfig.close();
     }
 
     public static void main(String[] args) {
         launch();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package org.nico.quoted.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+// HikariCP pool for the EntityManagerFactory, configured from an external properties file, see quoted-pool.properties.example
+// Without the file, Hibernate connects with the jdbc properties of persistence.xml through its built-in pool, which is
+// not meant for production: it neither validates connections nor detects leaks.
+
+@Slf4j
+public class ConnectionPool {
+    public static final String PROPERTIES_FILE = System.getProperty("quoted.poolProperties", "quoted-pool.properties"); // -Dquoted.poolProperties=<path>
+    private static HikariDataSource dataSource;
+
+    // Properties for createEntityManagerFactory that make it use the pool, none without the properties file
+    public static synchronized Map<String, Object> entityManagerFactoryProperties() {
+        Path file = Path.of(PROPERTIES_FILE);
+        if (!Files.isReadable(file)) {
+            log.info("No " + file.toAbsolutePath() + ", using the connection settings of persistence.xml.");
+            return new HashMap<>();
+        }
+
+        try (InputStream in = Files.newInputStream(file)) {
+            Properties properties = new Properties();
+            properties.load(in);
+            dataSource = createDataSource(properties);
+            log.info("Connection pool " + dataSource.getPoolName() + " with up to " + dataSource.getMaximumPoolSize() + " connections.");
+            return entityManagerFactoryProperties(dataSource);
+        } catch (IOException e) {
+            log.error("Could not read " + file + ": " + e.getMessage());
+            e.printStackTrace();
+            return new HashMap<>();
+        }
+    }
+
+    public static HikariDataSource createDataSource(Properties properties) {
+        return new HikariDataSource(new HikariConfig(properties));
+    }
+
+    public static Map<String, Object> entityManagerFactoryProperties(HikariDataSource dataSource) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, dataSource);
+        // Connections of a pool without auto-commit are already in a transaction, saves a round trip per transaction
+        if (!dataSource.isAutoCommit())
+            properties.put(AvailableSettings.CONNECTION_PROVIDER_DISABLES_AUTOCOMMIT, "true");
+        return properties;
+    }
+
+    // Closes all connections, to be called on exit after the EntityManagerFactory was closed
+    public static synchronized void close() {
+        if (dataSource != null)
+            dataSource.close();
+    }
+}
@@ -2,9 +2,86 @@ package org.nico.quoted.config;
 
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.spi.PersistenceProvider;
+import org.nico.quoted.repository.SchemaMigration;
+import org.nico.quoted.util.StartupTimer;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class DBConfig {
     private static final String DB_NAME = "quote_db";
+    public static final int BATCH_SIZE = 50; // Should match hibernate.jdbc.batch_size in persistence.xml
+    public static final int STREAM_FETCH_SIZE = 500; // Rows per chunk when streaming, the persistence context is cleared before each next chunk
+    public static final int ID_ALLOCATION_SIZE = 50; // Ids fetched per sequence call, must match the INCREMENT BY of the sequences
+    public static final long WRITE_BEHIND_INTERVAL = 500; // milli seconds between two writes of pending changes
+    public static final int WRITE_BEHIND_THRESHOLD = 200; // Pending changes that trigger a write before the interval has passed
+    public static final boolean DATABASE_SEARCH = Boolean.getBoolean("quoted.databaseSearch"); // Search quotes in the database instead of in memory, -Dquoted.databaseSearch=true
+    public static final int SEARCH_PAGE_SIZE = 200; // Quotes shown for a search in the database
+    public static final boolean PAGED_BROWSING = Boolean.getBoolean("quoted.pagedBrowsing"); // Browse quotes page by page from the database, -Dquoted.pagedBrowsing=true
+    public static final int BROWSE_PAGE_SIZE = 100; // Quotes loaded at once when browsing page by page
+    public static final int BROWSE_CACHED_PAGES = 20; // Pages kept in memory when browsing page by page, the least recently used are dropped
+    public static final boolean DATABASE_RANDOM = Boolean.getBoolean("quoted.databaseRandom"); // Draw random quotes in the database instead of in memory, -Dquoted.databaseRandom=true
+    public static final int RANDOM_PREFETCH = 10; // Random quotes drawn in the database at once and kept at hand
+    public static final String STORAGE = System.getProperty("quoted.storage", "jpa"); // Name of the StorageProvider, "memory" keeps everything in memory, -Dquoted.storage=memory
+    public static final boolean CACHE_STATISTICS = Boolean.getBoolean("quoted.cacheStatistics"); // Collect hibernate statistics and log the cache hits on exit, -Dquoted.cacheStatistics=true
     private static final PersistenceProvider provider = new org.hibernate.jpa.HibernatePersistenceProvider();
-    public static final EntityManagerFactory EMF = provider.createEntityManagerFactory(DB_NAME, null);
-}
\ No newline at end of file
+    private static CompletableFuture<EntityManagerFactory> emf; // Booted on first use
+
+    // Starts the boot of the EntityManagerFactory on a background thread, unless it was started before
+    // The boot connects to the database and migrates the schema, so the window can be shown in the meantime
+    public static synchronized CompletableFuture<EntityManagerFactory> bootEntityManagerFactory() {
+        if (emf == null) {
+            emf = new CompletableFuture<>();
+            Thread.ofVirtual().name("emf-boot").start(() -> {
+                try {
+                    emf.complete(migrated(StartupTimer.time("EntityManagerFactory boot", DBConfig::createEntityManagerFactory)));
+                } catch (RuntimeException e) {
+                    emf.completeExceptionally(e);
+                }
+            });
+        }
+        return emf;
+    }
+
+    // The embedded database is configured in code and needs no persistence.xml, see EmbeddedDatabase
+    private static EntityManagerFactory createEntityManagerFactory() {
+        if (EmbeddedDatabase.ENABLED)
+            return EmbeddedDatabase.createEntityManagerFactory(EmbeddedDatabase.url(EmbeddedDatabase.PATH), CACHE_STATISTICS);
+        return provider.createEntityManagerFactory(DB_NAME, entityManagerFactoryProperties());
+    }
+
+    // Connection settings of the pool that replace those of persistence.xml, if any, and the statistics setting
+    private static Map<String, Object> entityManagerFactoryProperties() {
+        Map<String, Object> properties = new HashMap<>(ConnectionPool.entityManagerFactoryProperties());
+        properties.put("hibernate.generate_statistics", String.valueOf(CACHE_STATISTICS)); // Adds overhead to every session
+        return properties;
+    }
+
+    // Applies pending migrations before the repositories use the schema, see SchemaMigration
+    private static EntityManagerFactory migrated(EntityManagerFactory bootedEmf) {
+        try {
+            StartupTimer.time("Schema migration", () -> SchemaMigration.migrate(bootedEmf));
+            return bootedEmf;
+        } catch (RuntimeException e) {
+            bootedEmf.close();
+            throw e;
+        }
+    }
+
+    // Waits for the boot if it is still running
+    public static EntityManagerFactory entityManagerFactory() {
+        return bootEntityManagerFactory().join();
+    }
+
+    public static synchronized boolean isBooted() {
+        return emf != null && emf.isDone() && !emf.isCompletedExceptionally();
+    }
+
+    // Closes the EntityManagerFactory if it was booted, then the connection pool
+    public static synchronized void close() {
+        if (isBooted())
+            emf.join().close();
+        ConnectionPool.close();
+    }
+}
@@ -0,0 +1,58 @@
+package org.nico.quoted.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.nico.quoted.domain.*;
+
+// Single-file H2 database in the process of Quoted, instead of a postgresql server: -Dquoted.embedded=true
+// Configured here instead of in persistence.xml, so it runs without one; the settings follow the quote_db unit of
+// persistence.xml.example, and the schema is created by the scripts in db/migration/h2. PostgreSQL mode keeps the
+// queries and lower case names of the server.
+
+public class EmbeddedDatabase {
+    public static final boolean ENABLED = Boolean.getBoolean("quoted.embedded");
+    public static final String PATH = System.getProperty("quoted.embeddedPath",
+            System.getProperty("user.home") + "/.quoted/quote_db"); // H2 appends .mv.db, -Dquoted.embeddedPath=<path>
+    public static final String URL_OPTIONS = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE";
+
+    public static String url(String path) {
+        return "jdbc:h2:file:" + path + URL_OPTIONS;
+    }
+
+    // Entity mappings, connection and batch settings, without caches
+    public static Configuration configuration(String url) {
+        return new Configuration()
+                .addAnnotatedClass(Quote.class)
+                .addAnnotatedClass(Author.class)
+                .addAnnotatedClass(Book.class)
+                .addAnnotatedClass(Article.class)
+                .addAnnotatedClass(Source.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_DRIVER, "org.h2.Driver")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, url)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, "")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "none") // Migrated by SchemaMigration
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(DBConfig.BATCH_SIZE))
+                .setProperty(AvailableSettings.ORDER_INSERTS, "true")
+                .setProperty(AvailableSettings.ORDER_UPDATES, "true")
+                .setProperty(AvailableSettings.BATCH_VERSIONED_DATA, "true")
+                .setProperty(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+                .setProperty("hibernate.query.plan_cache_enabled", "true")
+                .setProperty("hibernate.query.plan_cache_max_size", "512")
+                .setProperty("hibernate.query.plan_parameter_metadata_max_size", "128");
+    }
+
+    // The EntityManagerFactory of the embedded mode, with the second-level and query cache of the server
+    public static EntityManagerFactory createEntityManagerFactory(String url, boolean statistics) {
+        return configuration(url)
+                .setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, "ENABLE_SELECTIVE")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true")
+                .setProperty(AvailableSettings.USE_QUERY_CACHE, "true")
+                .setProperty(AvailableSettings.CACHE_REGION_FACTORY, "jcache")
+                .setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                .setProperty("hibernate.javax.cache.uri", "ehcache.xml")
+                .setProperty(AvailableSettings.GENERATE_STATISTICS, String.valueOf(statistics))
+                .buildSessionFactory();
+    }
+}
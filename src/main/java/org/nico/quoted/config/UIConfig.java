@@ -5,5 +5,9 @@ public class UIConfig {
     public static final int WINDOW_WIDTH = 600;
     public static final int WINDOW_HEIGHT = 430;
     public static final int DURATION_INFO_MESSAGE = 2000; // milli seconds
+    public static final long SEARCH_DELAY = Long.getLong("quoted.searchDelay", 250); // milli seconds without typing before a search runs, -Dquoted.searchDelay=250
+    public static final int RANDOM_NO_REPEAT_WINDOW = 10; // Random quotes shown before a quote can be shown again, if there are more quotes
+    public static final int RANDOM_CHOICES = 2; // Quotes sampled per random quote, the one shown longest ago is shown; 1 samples uniformly
+    public static final boolean EXIT_AFTER_STARTUP = Boolean.getBoolean("quoted.exitAfterStartup"); // Exits once all quotes are shown, to benchmark the startup, -Dquoted.exitAfterStartup=true
     public static final String CSS_PATH = "/css/style.css";
 }
@@ -3,12 +3,16 @@ package org.nico.quoted.domain;
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.sql.Timestamp;
+import java.util.Objects;
 
 @NoArgsConstructor // Needed for JPA
 @Getter @Setter
@@ -17,6 +21,9 @@ import java.sql.Timestamp;
 public class Article extends Source {
 
     private String url;
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private final NaturalKey urlKey = new NaturalKey();
     @CreationTimestamp
     @Column(name = "last_visited")
     private Timestamp lastVisited;
@@ -38,12 +45,23 @@ public class Article extends Source {
             return super.toString();
     }
 
+    // Case-folded url
+    private String urlKey() {
+        return urlKey.of(this.getUrl());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Article article = (Article) o;
-        return this.url.equalsIgnoreCase(article.url);
+        Object other = Hibernate.unproxy(o);
+        if (other == null || getClass() != other.getClass()) return false;
+        Article article = (Article) other;
+        return Objects.equals(this.urlKey(), article.urlKey());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.urlKey());
     }
 
     @Override
@@ -1,22 +1,41 @@
 package org.nico.quoted.domain;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.nico.quoted.config.DBConfig;
 
+import java.util.Objects;
 import java.util.Set;
 
 @NoArgsConstructor // Needed for JPA
 @Getter @Setter
 @Entity
-public class Author {
+@NamedEntityGraph(name = Author.GRAPH_WITH_BOOKS, attributeNodes = @NamedAttributeNode("books"))
+@BatchSize(size = DBConfig.BATCH_SIZE) // Authors of books that are not joined are loaded in batches instead of one by one
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+public class Author implements Identifiable {
+    public static final String GRAPH_WITH_BOOKS = "Author.withBooks";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = DBConfig.ID_ALLOCATION_SIZE)
     private long id;
     private String firstName;
     private String lastName;
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private final NaturalKey firstNameKey = new NaturalKey();
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private final NaturalKey lastNameKey = new NaturalKey();
 
     @OneToMany(cascade = CascadeType.MERGE, mappedBy = "author")
     private Set<Book> books;
@@ -26,14 +45,29 @@ public class Author {
         this.lastName = lastName;
     }
 
+    // Case-folded names
+    private String firstNameKey() {
+        return firstNameKey.of(this.getFirstName());
+    }
+
+    private String lastNameKey() {
+        return lastNameKey.of(this.getLastName());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        Object other = Hibernate.unproxy(o);
+        if (other == null || getClass() != other.getClass()) return false;
 
-        Author author = (Author) o;
+        Author author = (Author) other;
 
-        return firstName.equalsIgnoreCase(author.firstName) &&
-        lastName.equalsIgnoreCase(author.lastName);
+        return Objects.equals(firstNameKey(), author.firstNameKey()) &&
+        Objects.equals(lastNameKey(), author.lastNameKey());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(firstNameKey(), lastNameKey());
     }
 }
\ No newline at end of file
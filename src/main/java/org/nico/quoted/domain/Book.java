@@ -4,12 +4,17 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
+
+import java.util.Objects;
 
 @NoArgsConstructor // Needed for JPA
 @Getter @Setter
 @Entity
 @DiscriminatorValue("book")
+@NamedEntityGraph(name = Book.GRAPH_WITH_AUTHOR, attributeNodes = @NamedAttributeNode("author"))
 public class Book extends Source {
+    public static final String GRAPH_WITH_AUTHOR = "Book.withAuthor";
 
     @ManyToOne(cascade = CascadeType.MERGE)
     @JoinColumn(name = "author_id")
@@ -25,10 +30,16 @@ public class Book extends Source {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Book book = (Book) o;
-        return this.getTitle().equalsIgnoreCase(book.getTitle())
-                && this.author.equals(book.author);
+        Object other = Hibernate.unproxy(o);
+        if (other == null || getClass() != other.getClass()) return false;
+        Book book = (Book) other;
+        return Objects.equals(this.titleKey(), book.titleKey())
+                && Objects.equals(this.getAuthor(), book.getAuthor());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.titleKey(), this.getAuthor());
     }
 
     @Override
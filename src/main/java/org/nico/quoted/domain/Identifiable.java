@@ -0,0 +1,7 @@
+package org.nico.quoted.domain;
+
+// Implemented by all entities; getters and setters are generated by Lombok
+public interface Identifiable {
+    long getId();
+    void setId(long id);
+}
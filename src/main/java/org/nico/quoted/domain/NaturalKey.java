@@ -0,0 +1,33 @@
+package org.nico.quoted.domain;
+
+// Case-folded form of one natural key field, used by equals and hashCode of the entities
+// The folded key is computed once and kept until the field refers to another string. This holds for values
+// set through setters as well as for values written directly into the field by Hibernate.
+
+final class NaturalKey {
+
+    private record Folded(String value, String key) {
+    }
+
+    private Folded folded; // Immutable, so a key computed by another thread is never seen half-written
+
+    String of(String value) {
+        Folded current = folded;
+        if (current == null || current.value() != value) {
+            current = new Folded(value, fold(value));
+            folded = current;
+        }
+        return current.key();
+    }
+
+    // Folds each character the way String.equalsIgnoreCase compares it, so that keys are equal exactly if the values are
+    static String fold(String s) {
+        if (s == null)
+            return null;
+
+        int[] codePoints = s.codePoints()
+                .map(codePoint -> Character.toLowerCase(Character.toUpperCase(codePoint)))
+                .toArray();
+        return new String(codePoints, 0, codePoints.length);
+    }
+}
@@ -4,17 +4,23 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
 import org.hibernate.annotations.CreationTimestamp;
+import org.nico.quoted.config.DBConfig;
 
 import java.sql.Timestamp;
+import java.util.Objects;
 
 @Entity
+@NamedEntityGraph(name = Quote.GRAPH_WITH_SOURCE, attributeNodes = @NamedAttributeNode("source"))
 @NoArgsConstructor
 @Getter @Setter
-public class Quote {
+public class Quote implements Identifiable {
+    public static final String GRAPH_WITH_SOURCE = "Quote.withSource";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quote_seq")
+    @SequenceGenerator(name = "quote_seq", sequenceName = "quote_seq", allocationSize = DBConfig.ID_ALLOCATION_SIZE)
     private long id;
 
     @CreationTimestamp
@@ -35,10 +41,16 @@ public class Quote {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Quote quote = (Quote) o;
-        return text.equals(quote.text) &&
-                source.equals(quote.source);
+        Object other = Hibernate.unproxy(o);
+        if (other == null || getClass() != other.getClass()) return false;
+        Quote quote = (Quote) other;
+        return Objects.equals(text, quote.text) &&
+                Objects.equals(source, quote.source);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(text, source); // Case-sensitive text, String caches its hash code
     }
 
 }
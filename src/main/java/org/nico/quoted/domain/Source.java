@@ -1,11 +1,18 @@
 package org.nico.quoted.domain;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.nico.quoted.config.DBConfig;
 
+import java.util.Objects;
 import java.util.Set;
 
 @NoArgsConstructor // Needed for JPA
@@ -14,12 +21,21 @@ import java.util.Set;
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED) // JOINED to to have a dedicated source table, TABLE_PER_CLASS to have a table per subclass
 @DiscriminatorColumn(name="source_type")
-public abstract class Source {
+@NamedEntityGraph(name = Source.GRAPH_WITH_QUOTES, attributeNodes = @NamedAttributeNode("quotes"))
+@BatchSize(size = DBConfig.BATCH_SIZE) // Sources that are not joined are loaded in batches instead of one by one
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) // Books and articles share the region of the root entity
+public abstract class Source implements Identifiable {
+    public static final String GRAPH_WITH_QUOTES = "Source.withQuotes";
 
     @Id
-    @GeneratedValue(strategy = GenerationType.TABLE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "source_seq") // Shared by books and articles
+    @SequenceGenerator(name = "source_seq", sequenceName = "source_seq", allocationSize = DBConfig.ID_ALLOCATION_SIZE)
     private long id;
     private String title;
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private final NaturalKey titleKey = new NaturalKey();
     @OneToMany(cascade = CascadeType.MERGE, mappedBy = "source")
     private Set<Quote> quotes;
 
@@ -27,12 +43,23 @@ public abstract class Source {
         this.title = title;
     }
 
+    // Case-folded title, for equals and hashCode of the subclasses
+    String titleKey() {
+        return titleKey.of(this.getTitle());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Source source = (Source) o;
-        return this.title.equals(source.title);
+        Object other = Hibernate.unproxy(o); // Sources referenced by quotes may be lazy proxies
+        if (other == null || getClass() != other.getClass()) return false;
+        Source source = (Source) other;
+        return Objects.equals(this.titleKey(), source.titleKey());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.titleKey());
     }
 
     public abstract String getOrigin();
@@ -6,10 +6,18 @@ import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import lombok.extern.slf4j.Slf4j;
+import org.nico.quoted.config.DBConfig;
+import org.nico.quoted.config.UIConfig;
 import org.nico.quoted.domain.*;
+import org.nico.quoted.repository.AsyncSnapshotRepository;
 import org.nico.quoted.repository.CRUDRepository;
+import org.nico.quoted.repository.QuoteSearchRepository;
+import org.nico.quoted.repository.SnapshotRepository;
 
 import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 @Slf4j
 public class ClientModel extends EditViewModel {
@@ -22,23 +30,48 @@ public class ClientModel extends EditViewModel {
     private final ObservableList<Article> articles;
     private final ObservableList<Quote> quotes;
 
+    // Hash indexes over the lists, for O(1) lookup of an equal instance instead of indexOf/contains scans
+    private final NaturalKeyIndex<Source> sourceIndex = new NaturalKeyIndex<>();
+    private final NaturalKeyIndex<Author> authorIndex = new NaturalKeyIndex<>();
+    private final NaturalKeyIndex<Quote> quoteIndex = new NaturalKeyIndex<>();
+    private final QuotesBySource quotesBySource = new QuotesBySource(sourceIndex);
+
+    // Inverted indexes for the search, over the texts and sources of the quotes and over the titles and origins of the sources
+    private final SearchIndex<Quote> quoteSearchIndex = new SearchIndex<>(Quote::getText, this::sourceText);
+    private final SearchIndex<Source> sourceSearchIndex = new SearchIndex<>(Source::toString);
+
+    // Random quotes without repeats within the window
+    private final ShuffleBag<Quote> randomQuotes =
+            new ShuffleBag<>(UIConfig.RANDOM_NO_REPEAT_WINDOW, UIConfig.RANDOM_CHOICES, new SplittableRandom());
+
     private final ObjectProperty<Source> selectedSource;
     private final ObjectProperty<Quote> selectedQuote;
 
     private final BooleanProperty resetForm;
-    private static Quote lastRandomQuote;
 
-    private final CRUDRepository<Author> authorRepository;
-    private final CRUDRepository<Book> bookRepository;
-    private final CRUDRepository<Article> articleRepository;
+    private final SnapshotRepository snapshotRepository;
     private final CRUDRepository<Quote> quoteRepository;
+    private final QuoteSearchRepository quoteSearchRepository;
+    private final AsyncSnapshotRepository asyncSnapshotRepository;
+    private final WriteBehindQueue writeBehindQueue;
+    private final RandomQuoteBuffer randomQuoteBuffer; // Random quotes from the database
+    private boolean loaded; // Quotes were read into the lists
+    private boolean loading; // Suppresses the change listeners while the lists are filled from the repositories
 
     public ClientModel(RepositoryModel repositoryModel) {
+        this(repositoryModel, true);
+    }
+
+    // Without readNow, the lists stay empty until load is called
+    public ClientModel(RepositoryModel repositoryModel, boolean readNow) {
 
-        this.authorRepository = repositoryModel.getAuthorRepository();
-        this.bookRepository = repositoryModel.getBookRepository();
-        this.articleRepository = repositoryModel.getArticleRepository();
+        this.snapshotRepository = repositoryModel.getSnapshotRepository();
         this.quoteRepository = repositoryModel.getQuoteRepository();
+        this.quoteSearchRepository = repositoryModel.getQuoteSearchRepository();
+        this.asyncSnapshotRepository = repositoryModel.getAsyncSnapshotRepository();
+        this.writeBehindQueue = new WriteBehindQueue(repositoryModel, DBConfig.WRITE_BEHIND_INTERVAL, DBConfig.WRITE_BEHIND_THRESHOLD);
+        this.randomQuoteBuffer = new RandomQuoteBuffer(repositoryModel.getRandomQuoteRepository(),
+                DBConfig.RANDOM_PREFETCH, UIConfig.RANDOM_NO_REPEAT_WINDOW);
 
         // Lists
         this.sources = FXCollections.observableArrayList();
@@ -47,34 +80,95 @@ public class ClientModel extends EditViewModel {
         this.articles = FXCollections.observableArrayList();
         this.quotes = FXCollections.observableArrayList();
 
+        // Indexes are registered first, so that they are up to date in the other listeners, and also follow loading
+        this.sources.addListener(sourceIndex);
+        this.authors.addListener(authorIndex);
+        this.quotes.addListener(quoteIndex);
+        this.quotes.addListener(quotesBySource);
+        this.quotes.addListener(quoteSearchIndex);
+        this.sources.addListener(sourceSearchIndex);
+        this.quotes.addListener(randomQuotes);
+
         // Selectors
         this.selectedSource = new SimpleObjectProperty<>();
         this.selectedQuote = new SimpleObjectProperty<>();
         this.resetForm = new SimpleBooleanProperty();
 
         // Initialisation
-        readRepositories();
+        if (readNow)
+            readRepositories();
         registerChangeListeners();
     }
 
     private void readRepositories() {
-        this.sources.addAll(bookRepository.readAll());
-        this.sources.addAll(articleRepository.readAll());
+        fillLists(snapshotRepository.readSnapshot());
+        loaded = true;
+        log.info("Repositories read into model.");
+    }
 
-        this.books.addAll(bookRepository.readAll());
-        this.authors.addAll(authorRepository.readAll());
-        this.articles.addAll(articleRepository.readAll());
+    // Reads all repositories without blocking the FX thread; authors and sources are shown first, then the quotes as they arrive
+    public CompletableFuture<Void> load() {
+        return asyncSnapshotRepository.readSnapshot(DBConfig.STREAM_FETCH_SIZE, this::addChunk)
+                .thenRun(() -> {
+                    loaded = true;
+                    log.info("Repositories loaded into model.");
+                });
+    }
+
+    // Changes made in between chunks are registered as usual
+    private void addChunk(SnapshotRepository.Snapshot chunk) {
+        loading = true;
+        try {
+            if (!chunk.authors().isEmpty() || !chunk.sources().isEmpty())
+                fillSources(chunk);
+            this.quotes.addAll(chunk.quotes());
+        } finally {
+            loading = false;
+        }
+    }
 
-        this.quotes.addAll(quoteRepository.readAll());
-        log.info("Repositories read into model.");
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Distributes the shared instances of the snapshot over all lists, books before articles
+    private void fillLists(SnapshotRepository.Snapshot snapshot) {
+        fillSources(snapshot);
+        this.quotes.setAll(snapshot.quotes());
+    }
+
+    private void fillSources(SnapshotRepository.Snapshot snapshot) {
+        List<Book> readBooks = new ArrayList<>();
+        List<Article> readArticles = new ArrayList<>();
+        snapshot.sources().forEach(source -> {
+            if (source instanceof Book book)
+                readBooks.add(book);
+            else if (source instanceof Article article)
+                readArticles.add(article);
+        });
+
+        List<Source> readSources = new ArrayList<>(readBooks);
+        readSources.addAll(readArticles);
+
+        this.sources.setAll(readSources);
+        this.books.setAll(readBooks);
+        this.authors.setAll(snapshot.authors());
+        this.articles.setAll(readArticles);
     }
 
     private void registerChangeListeners() {
-        this.quotes.addListener(quoteListChangeListener());
-        this.sources.addListener(sourceListChangeListener());
-        this.books.addListener(bookListChangeListener());
-        this.authors.addListener(authorListChangeListener());
-        this.articles.addListener(articleListChangeListener());
+        this.quotes.addListener(unlessLoading(quoteListChangeListener()));
+        this.sources.addListener(unlessLoading(sourceListChangeListener()));
+        this.books.addListener(unlessLoading(bookListChangeListener()));
+        this.authors.addListener(unlessLoading(authorListChangeListener()));
+        this.articles.addListener(unlessLoading(articleListChangeListener()));
+    }
+
+    private <T> ListChangeListener<T> unlessLoading(ListChangeListener<T> listener) {
+        return c -> {
+            if (!loading)
+                listener.onChanged(c);
+        };
     }
 
     // ############################## Getters ###########################
@@ -128,7 +222,7 @@ public class ClientModel extends EditViewModel {
     }
 
     public void deleteQuote(Quote quoteToDelete) {
-        if (!quotes.contains(quoteToDelete)) {
+        if (!quoteIndex.contains(quoteToDelete)) {
             log.error("Quote to delete not found in quote list.");
             return;
         }
@@ -146,18 +240,24 @@ public class ClientModel extends EditViewModel {
         return quotes.get(index);
     }
 
+    // Does not repeat a quote within the last UIConfig.RANDOM_NO_REPEAT_WINDOW random quotes, see ShuffleBag
     public Quote getRandomQuote() {
-        if (quotes.size() == 0)
-            return new Quote("No quotes found", new Article("No source found", "-"));
-        if (quotes.size() == 1)
-            return quotes.get(0);
+        Quote randomQuote = randomQuotes.next();
+        return randomQuote != null ? randomQuote : noQuote();
+    }
 
-        Quote randomQuote;
-        do {
-            randomQuote = quotes.get((int) (Math.random() * quotes.size()));
-        } while (randomQuote.equals(lastRandomQuote));
-        lastRandomQuote = randomQuote;
-        return randomQuote;
+    // Like getRandomQuote, but drawn in the database while the quotes are not loaded or if enabled in DBConfig
+    // Completes on the FX thread
+    public CompletableFuture<Quote> nextRandomQuote() {
+        if (loaded && !DBConfig.DATABASE_RANDOM)
+            return CompletableFuture.completedFuture(getRandomQuote());
+
+        return randomQuoteBuffer.next()
+                .thenApply(randomQuote -> randomQuote != null ? listedQuote(randomQuote) : noQuote());
+    }
+
+    private static Quote noQuote() {
+        return new Quote("No quotes found", new Article("No source found", "-"));
     }
 
     public void updateQuote(Quote quote) {
@@ -166,27 +266,92 @@ public class ClientModel extends EditViewModel {
         log.info("Updated quote: " + quote.getText() + ", from source: " + quote.getSource().toString());
     }
 
+    // Sources whose title or origin contain words starting with each word of the search string, all sources if it is blank
+    // Searches for a search string that is not blank may run on a background thread, see DebouncedSearch
     public ObservableList<Source> searchSources(String searchString) {
-        String regex = "(?i).*" + searchString + ".*";
-        return sources.stream()
-                .filter(source -> source.getTitle().matches(regex)
-                        || source.toString().matches(regex))
-                .collect(FXCollections::observableArrayList, ObservableList::add, ObservableList::addAll);
+        if (searchString == null || searchString.isBlank())
+            return FXCollections.observableArrayList(sources);
+
+        return FXCollections.observableArrayList(sourceSearchIndex.search(searchString));
     }
 
+    // Quotes whose text or source match the search string like in searchSources, all quotes if it is blank
     public ObservableList<Quote> searchQuotes(String searchString) {
-        String regex = "(?i).*" + searchString + ".*";
-        return quotes.stream()
-                .filter(quote -> quote.getText().matches(regex)
-                        || quote.getSource().toString().matches(regex))
+        if (searchString == null || searchString.isBlank())
+            return FXCollections.observableArrayList(quotes);
+
+        return FXCollections.observableArrayList(quoteSearchIndex.search(searchString));
+    }
+
+    // Predicates for filtered views over getSources() and getQuotes(), matching what searchSources and searchQuotes find
+    // They also hold for sources and quotes added or edited later, and may be created on a background thread like the searches
+    public Predicate<Source> sourceSearchFilter(String searchString) {
+        if (searchString == null || searchString.isBlank())
+            return source -> true;
+        return sourceSearchIndex.filter(searchString);
+    }
+
+    public Predicate<Quote> quoteSearchFilter(String searchString) {
+        if (searchString == null || searchString.isBlank())
+            return quote -> true;
+        return quoteSearchIndex.filter(searchString);
+    }
+
+    // Predicate for the quotes of the source like getQuotesBySource, also matching quotes added later
+    // Quotes are given the instance of their source in the source list, see useExistingSource
+    public Predicate<Quote> quoteSourceFilter(Source source) {
+        Source listed = sourceIndex.find(source);
+        Source sourceOfQuotes = listed != null ? listed : source;
+        return quote -> quote.getSource() == sourceOfQuotes;
+    }
+
+    // Alternative to searchQuotes with the full-text search of the database, best matches first and at most one page
+    // Quotes that are loaded into the model are returned as the instances of the model
+    public ObservableList<Quote> searchQuotesInDatabase(String searchString) {
+        if (searchString == null || searchString.isBlank())
+            return FXCollections.observableArrayList(quotes);
+
+        writeBehindQueue.flush(); // So that the search covers all changes
+        return quoteSearchRepository.search(searchString, 0, DBConfig.SEARCH_PAGE_SIZE).stream()
+                .map(this::listedQuote)
                 .collect(FXCollections::observableArrayList, ObservableList::add, ObservableList::addAll);
     }
 
+    // Quotes from the database page by page, all ordered by id or those found by the full-text search best matches first
+    // Loaded quotes are returned as the instances of the model. The list shows the quotes as written to the database, it
+    // does not follow changes of the quote list and has to be refreshed once they were written, see addWriteListener
+    public PagedList<Quote> pagedQuotes(String searchString) {
+        boolean all = searchString == null || searchString.isBlank();
+        return new PagedList<>(new PagedList.PageSource<>() {
+            @Override
+            public long count() {
+                return all ? quoteRepository.count() : quoteSearchRepository.count(searchString);
+            }
+
+            @Override
+            public List<Quote> page(int offset, int limit) {
+                List<Quote> page = all
+                        ? quoteRepository.readPage(offset, limit)
+                        : quoteSearchRepository.search(searchString, offset, limit);
+                return page.stream().map(ClientModel.this::listedQuote).toList();
+            }
+        }, DBConfig.BROWSE_PAGE_SIZE, DBConfig.BROWSE_CACHED_PAGES);
+    }
+
+    // The listener runs on a background thread after changes of the lists were written to the repositories
+    public void addWriteListener(Runnable listener) {
+        writeBehindQueue.addWriteListener(listener);
+    }
+
+    private Quote listedQuote(Quote quote) {
+        Quote listed = quoteIndex.find(quote);
+        return listed != null ? listed : quote;
+    }
+
+    // The returned list is unmodifiable and follows changes of the quote list, unless the source had no quotes yet
     public ObservableList<Quote> getQuotesBySource(Source source) {
         log.info("Getting quotes by source: " + source.toString());
-        return quotes.stream()
-                .filter(quote -> quote.getSource().equals(source))
-                .collect(FXCollections::observableArrayList, ObservableList::add, ObservableList::addAll);
+        return quotesBySource.get(source);
     }
 
     public void addBook(Book newBook) {
@@ -195,15 +360,22 @@ public class ClientModel extends EditViewModel {
     }
 
     public void updateSource(Source source) {
-        quotes.stream()
-                .filter(quote -> quote.getSource().equals(this.getSourceToEdit()))
-                .forEach(quote -> quote.setSource(source));
+        List<Quote> quotesOfSource = List.copyOf(quotesBySource.get(this.getSourceToEdit()));
+        quotesOfSource.forEach(quote -> quote.setSource(source));
+        quoteIndex.rekey(quotesOfSource); // Their natural key contains the source
+        quotesBySource.move(this.getSourceToEdit(), source);
 
         source.setId(this.getSourceToEdit().getId());
 
         sources.set(sources.indexOf(this.getSourceToEdit()), source);
+        quoteSearchIndex.reindex(quotesOfSource);
         log.info("Updated source: " + source);
-        quotes.forEach(quote -> log.info("Updated quote: " + quote.getText() + " to new source: " + quote.getSource().toString()));
+        quotesOfSource.forEach(quote -> log.info("Updated quote: " + quote.getText() + " to new source: " + quote.getSource().toString()));
+    }
+
+    public void deleteSource(Source sourceToDelete) {
+        log.info("Deleting source: " + sourceToDelete.toString());
+        this.sources.remove(sourceToDelete);
     }
 
     public void deleteSourceByIndex(int index) {
@@ -220,11 +392,20 @@ public class ClientModel extends EditViewModel {
     }
 
     public void deleteEmptySources() {
-        sources.removeIf(source ->
-                getQuotesBySource(source).isEmpty());
+        sources.removeIf(quotesBySource::isEmpty);
         cleanAuthors();
     }
 
+    // Writes all changes that are still pending in the write-behind queue
+    public void flush() {
+        writeBehindQueue.flush();
+    }
+
+    // Writes all pending changes and stops background writing, to be called on exit
+    public void close() {
+        writeBehindQueue.close();
+    }
+
     // ############################## Change listeners ###########################
 
     private ListChangeListener<Quote> quoteListChangeListener() {
@@ -233,45 +414,52 @@ public class ClientModel extends EditViewModel {
                 if (c.wasReplaced()) {
                     log.info("Quote list was replaced");
 
-                    c.getAddedSubList().forEach(quote -> {
-                        if (sources.contains(quote.getSource())) {
-                            quote.setSource(sources.get(sources.indexOf(quote.getSource())));
+                    c.getAddedSubList().forEach(this::useExistingSource);
 
-                        } else
-                            sources.add(quote.getSource());
-
-                        quoteRepository.update(quote);
-                    });
+                    registerReplaced(c, writeBehindQueue.getQuotes());
                 }
 
                 else if (c.wasAdded()) {
                     log.info("Quote was added");
                     c.getAddedSubList().forEach(quote -> {
-                        if (!sources.contains(quote.getSource()))
-                            sources.add(quote.getSource());
-                        else
-                            quote.setSource(sources.get(sources.indexOf(quote.getSource())));
+                        useExistingSource(quote);
 
                         if (quote.getSource() instanceof Article article) {
                             article.setLastVisited(new Timestamp(System.currentTimeMillis()));
-                            articleRepository.update(article);
+                            writeBehindQueue.getArticles().registerDirty(article);
                         }
 
-                        quoteRepository.create(quote);
+                        writeBehindQueue.getQuotes().registerNew(quote);
                     });
                 }
 
                 else if (c.wasRemoved()) {
                     log.info("Quote was removed");
-                    c.getRemoved().forEach(quoteRepository::delete);
+                    c.getRemoved().forEach(writeBehindQueue.getQuotes()::registerRemoved);
                 }
 
             }
         };
     }
 
+    // Text of the source of the quote for the search, from the equal source in the list that the quote is given in useExistingSource
+    private String sourceText(Quote quote) {
+        Source listed = sourceIndex.find(quote.getSource());
+        return (listed != null ? listed : quote.getSource()).toString();
+    }
+
+    // Replaces the source of the quote with an equal source from the list, or adds it to the list
+    private void useExistingSource(Quote quote) {
+        Source existingSource = sourceIndex.find(quote.getSource());
+        if (existingSource != null)
+            quote.setSource(existingSource);
+        else
+            sources.add(quote.getSource());
+    }
+
     private ListChangeListener<Source> sourceListChangeListener() {
         return c -> {
+            Set<Source> removedSources = Collections.newSetFromMap(new IdentityHashMap<>());
             while (c.next()) {
                 if (c.wasReplaced()) {
 
@@ -294,18 +482,25 @@ public class ClientModel extends EditViewModel {
                     });
 
                 else if (c.wasRemoved())
-                    c.getRemoved().forEach(source -> {
-                        quotes.removeIf(quote -> quote.getSource().equals(source));
-
-                        if (source instanceof Book)
-                            books.remove(source);
-                        else if (source instanceof Article)
-                            articles.remove(source);
-                    });
+                    removedSources.addAll(c.getRemoved()); // Removals are spread over many sub-changes by removeIf
             }
+
+            if (!removedSources.isEmpty())
+                removeSources(removedSources);
         };
     }
 
+    // Removes the quotes, books and articles of the removed sources, each in a single pass over the list
+    private void removeSources(Set<Source> removedSources) {
+        Set<Quote> quotesOfSources = Collections.newSetFromMap(new IdentityHashMap<>());
+        removedSources.forEach(source -> quotesOfSources.addAll(quotesBySource.get(source)));
+        if (!quotesOfSources.isEmpty())
+            quotes.removeIf(quotesOfSources::contains);
+
+        books.removeIf(removedSources::contains);
+        articles.removeIf(removedSources::contains);
+    }
+
     private void updateBook(Book book) {
         int bookIndex = books.indexOf(this.getSourceToEdit());
         this.books.set(bookIndex, book);
@@ -319,68 +514,79 @@ public class ClientModel extends EditViewModel {
 
     private ListChangeListener<Book> bookListChangeListener() {
         return c -> {
+            boolean removed = false;
             while (c.next()) {
                 if (c.wasReplaced()) {
-                    c.getAddedSubList().forEach(book -> {
-                        // If a matching author already exists, replace the author in the book with the existing one and delete the duplicate
-                        if (this.authors.stream().anyMatch(author -> author.equals(book.getAuthor())))
-                            book.setAuthor(this.authors.get(this.authors.indexOf(book.getAuthor())));
-                        else
-                            authors.add(book.getAuthor());
-
-                        bookRepository.update(book);
-                    });
+                    // If a matching author already exists, replace the author in the book with the existing one and delete the duplicate
+                    c.getAddedSubList().forEach(this::useExistingAuthor);
 
+                    registerReplaced(c, writeBehindQueue.getBooks());
                     cleanAuthors();
                 }
 
-                else if (c.wasAdded())
+                else if (c.wasAdded()) {
                     c.getAddedSubList().forEach(book -> {
-                        if (this.authors.stream().anyMatch(author -> author.equals(book.getAuthor())))
-                            book.setAuthor(this.authors.get(this.authors.indexOf(book.getAuthor())));
-                        else
-                            authors.add(book.getAuthor());
+                        useExistingAuthor(book);
 
-                        bookRepository.create(book);
+                        writeBehindQueue.getBooks().registerNew(book);
                     });
+                }
 
                 else if (c.wasRemoved()) {
-                    c.getRemoved().forEach(bookRepository::delete);
-                    cleanAuthors();
+                    c.getRemoved().forEach(writeBehindQueue.getBooks()::registerRemoved);
+                    removed = true;
                 }
             }
+
+            if (removed)
+                cleanAuthors(); // Once for all sub-changes
         };
     }
 
+    private void useExistingAuthor(Book book) {
+        Author existingAuthor = authorIndex.find(book.getAuthor());
+        if (existingAuthor != null)
+            book.setAuthor(existingAuthor);
+        else
+            authors.add(book.getAuthor());
+    }
+
     private void cleanAuthors() {
-        this.authors.removeIf(author
-                -> books.stream().noneMatch(remainingBook
-                    -> remainingBook.getAuthor().equals(author)));
+        Set<Author> authorsOfBooks = authorsOfBooks();
+        this.authors.removeIf(author -> !authorsOfBooks.contains(author));
+    }
+
+    private Set<Author> authorsOfBooks() {
+        Set<Author> authorsOfBooks = new HashSet<>();
+        books.forEach(book -> authorsOfBooks.add(book.getAuthor()));
+        return authorsOfBooks;
     }
 
-    private ListChangeListener<? super Author> authorListChangeListener() {
+    private ListChangeListener<Author> authorListChangeListener() {
         return c -> {
             while (c.next()) {
                 log.info("Author list changed");
                 if (c.wasReplaced()) {
+                    Set<Author> authorsOfBooks = authorsOfBooks();
                     c.getRemoved().forEach(author -> {
-                        if (books.stream().noneMatch(book -> book.getAuthor().equals(author)))
+                        if (!authorsOfBooks.contains(author))
                             authors.remove(author);
                     });
 
-                    c.getAddedSubList().forEach(author -> {
-                        if (!authors.contains(author))
+                    List<Author> replacingAuthors = new ArrayList<>(c.getAddedSubList()); // Copy, as the list is modified below
+                    replacingAuthors.forEach(author -> {
+                        if (!authorIndex.contains(author))
                             authors.add(author);
-
-                        authorRepository.update(author);
                     });
+
+                    replacingAuthors.forEach(writeBehindQueue.getAuthors()::registerDirty);
                 }
 
                 else if (c.wasAdded())
-                    c.getAddedSubList().forEach(authorRepository::create);
+                    c.getAddedSubList().forEach(writeBehindQueue.getAuthors()::registerNew);
 
                 else if (c.wasRemoved())
-                    c.getRemoved().forEach(authorRepository::delete);
+                    c.getRemoved().forEach(writeBehindQueue.getAuthors()::registerRemoved);
             }
         };
     }
@@ -389,15 +595,31 @@ public class ClientModel extends EditViewModel {
         return c -> {
             while (c.next()) {
                 if (c.wasReplaced())
-                    c.getAddedSubList().forEach(articleRepository::update);
+                    registerReplaced(c, writeBehindQueue.getArticles());
 
                 else if (c.wasAdded())
-                    c.getAddedSubList().forEach(articleRepository::create);
+                    c.getAddedSubList().forEach(writeBehindQueue.getArticles()::registerNew);
 
                 else if (c.wasRemoved())
-                    c.getRemoved().forEach(articleRepository::delete);
+                    c.getRemoved().forEach(writeBehindQueue.getArticles()::registerRemoved);
             }
         };
     }
 
+    // Replacements are registered pairwise, so that a replacing entity takes over the row of the replaced one
+    private <T extends Identifiable> void registerReplaced(ListChangeListener.Change<? extends T> c, PendingChanges<T> pendingChanges) {
+        List<? extends T> removed = c.getRemoved();
+        List<? extends T> added = c.getAddedSubList();
+
+        for (int i = 0; i < added.size(); i++) {
+            if (i < removed.size())
+                pendingChanges.registerReplaced(removed.get(i), added.get(i));
+            else
+                pendingChanges.registerNew(added.get(i));
+        }
+
+        for (int i = added.size(); i < removed.size(); i++)
+            pendingChanges.registerRemoved(removed.get(i));
+    }
+
 }
@@ -0,0 +1,99 @@
+package org.nico.quoted.model;
+
+import javafx.application.Platform;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Search pipeline for a search field: runs a search in the background once the search string has not changed for the
+// delay, and hands its result to the consumer on the FX thread. A newer search string cancels the search that is pending
+// or running, and results of superseded searches are dropped, so the consumer only ever sees the latest search.
+
+@Slf4j
+public class DebouncedSearch<R> implements AutoCloseable {
+    private final Function<String, R> search;
+    private final Consumer<R> onResult;
+    private final long delay;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService executor;
+    private final Executor resultExecutor;
+
+    private final AtomicLong generation = new AtomicLong(); // Incremented by every submit and cancel
+    private Future<?> scheduled; // Guarded by this
+    private Future<?> running; // Guarded by this
+
+    public DebouncedSearch(Function<String, R> search, Consumer<R> onResult, long delay) {
+        this(search, onResult, delay, Executors.newVirtualThreadPerTaskExecutor(), Platform::runLater);
+    }
+
+    // The executor runs the searches, the result executor hands the results to the consumer
+    public DebouncedSearch(Function<String, R> search, Consumer<R> onResult, long delay,
+                           ExecutorService executor, Executor resultExecutor) {
+        this.search = search;
+        this.onResult = onResult;
+        this.delay = delay;
+        this.executor = executor;
+        this.resultExecutor = resultExecutor;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "debounced-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Searches for the search string after the delay, unless another one is submitted before
+    public synchronized void submit(String searchString) {
+        long current = cancel();
+        scheduled = scheduler.schedule(() -> start(searchString, current), delay, TimeUnit.MILLISECONDS);
+    }
+
+    // Drops the pending search, e.g. when the table is reset to show everything; returns the new generation
+    // A running search is not interrupted, as an interrupt in a JDBC call closes the connection; its result is dropped
+    public synchronized long cancel() {
+        if (scheduled != null)
+            scheduled.cancel(false);
+        if (running != null)
+            running.cancel(false);
+        scheduled = null;
+        running = null;
+        return generation.incrementAndGet();
+    }
+
+    private synchronized void start(String searchString, long current) {
+        if (isCurrent(current) && !executor.isShutdown())
+            running = executor.submit(() -> run(searchString, current));
+    }
+
+    private void run(String searchString, long current) {
+        R result;
+        try {
+            result = search.apply(searchString);
+        } catch (RuntimeException e) {
+            if (isCurrent(current)) {
+                log.error("Search for \"" + searchString + "\" failed");
+                e.printStackTrace();
+            }
+            return;
+        }
+
+        if (isCurrent(current))
+            resultExecutor.execute(() -> {
+                if (isCurrent(current)) // Checked again on the FX thread, a newer search may have been submitted meanwhile
+                    onResult.accept(result);
+            });
+    }
+
+    private boolean isCurrent(long current) {
+        return generation.get() == current;
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        scheduler.shutdownNow();
+        executor.shutdown(); // Not interrupted either, like in cancel
+    }
+}
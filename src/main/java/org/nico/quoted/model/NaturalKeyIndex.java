@@ -0,0 +1,115 @@
+package org.nico.quoted.model;
+
+import javafx.collections.ListChangeListener;
+
+import java.util.*;
+
+// Hash index over an ObservableList, kept up to date as a listener of the list
+// Maps each natural key (equals/hashCode of the entity) to the instances in the list, so lookups and dedup are O(1)
+// Entities are edited in place by the forms, which changes their hash code; such entries are found by identity and re-keyed
+// Methods are synchronized, so that results of a search in the background can be looked up while the list changes
+
+class NaturalKeyIndex<T> implements ListChangeListener<T> {
+    private final Map<Key<T>, Group<T>> byKey = new HashMap<>();
+    private final Map<T, Group<T>> members = new IdentityHashMap<>(); // The group each instance was indexed in
+
+    // The hash code is kept from the time of indexing, so the entry is still found after an edit in place
+    private record Key<T>(T entity, int hash) {
+        Key(T entity) {
+            this(entity, entity.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof Key<?> key && key.hash == hash && entity.equals(key.entity);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // Equal instances in the order they were added; the first stays the canonical one, as with indexOf
+    private record Group<T>(Key<T> key, List<T> instances) {
+        Group(Key<T> key) {
+            this(key, new ArrayList<>(1));
+        }
+    }
+
+    @Override
+    public synchronized void onChanged(Change<? extends T> c) {
+        while (c.next()) {
+            c.getRemoved().forEach(this::remove);
+            c.getAddedSubList().forEach(this::add);
+        }
+    }
+
+    // Returns the instance in the list that is equal to t, or null
+    public synchronized T find(T t) {
+        Group<T> group = members.get(t);
+        if (group != null) {
+            if (group.key().hash() != t.hashCode() || !group.key().entity().equals(t)) // Edited in place since it was indexed
+                reindex(t);
+            return t;
+        }
+
+        group = byKey.get(new Key<>(t));
+        return group != null ? group.key().entity() : null;
+    }
+
+    public synchronized boolean contains(T t) {
+        return find(t) != null;
+    }
+
+    // True if this very instance is in the list
+    public synchronized boolean containsInstance(T t) {
+        return members.containsKey(t);
+    }
+
+    public synchronized int size() {
+        return members.size();
+    }
+
+    // To be called after the natural keys of indexed entities were changed
+    public synchronized void rekey(Collection<? extends T> changed) {
+        changed.forEach(t -> {
+            if (members.containsKey(t))
+                reindex(t);
+        });
+    }
+
+    private void reindex(T t) {
+        remove(t);
+        add(t);
+    }
+
+    private void add(T t) {
+        if (members.containsKey(t))
+            return;
+
+        Group<T> group = byKey.computeIfAbsent(new Key<>(t), Group::new);
+        group.instances().add(t);
+        members.put(t, group);
+    }
+
+    private void remove(T t) {
+        Group<T> group = members.remove(t);
+        if (group == null)
+            return;
+
+        List<T> instances = group.instances();
+        for (int i = 0; i < instances.size(); i++)
+            if (instances.get(i) == t) {
+                instances.remove(i);
+                break;
+            }
+
+        // Without its canonical instance, the group is keyed anew by the next equal instance
+        if (group.key().entity() == t) {
+            byKey.remove(group.key());
+            instances.forEach(members::remove);
+            instances.forEach(this::add);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.nico.quoted.model;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Read-only list for a TableView over rows of the database, that loads only the pages the table renders
+// The size is the row count of the database. An element that is not loaded yet is null, its page is loaded in the
+// background and the table updated once it arrives; the page after it is prefetched, so scrolling rarely shows empty rows.
+// At most maxPages pages are kept, the least recently used are dropped and loaded again when needed.
+// Apart from the page source, it is only to be used on the FX thread.
+
+@Slf4j
+public class PagedList<T> extends ObservableListBase<T> {
+
+    // Rows in a stable order, e.g. by id or by rank
+    public interface PageSource<T> {
+        long count();
+
+        List<T> page(int offset, int limit);
+    }
+
+    private final PageSource<T> source;
+    private final int pageSize;
+    private final Executor executor;
+    private final Executor resultExecutor;
+
+    private final Map<Integer, List<T>> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    private int size;
+    private long generation; // Incremented by refresh, so that pages loaded before are dropped
+
+    public PagedList(PageSource<T> source, int pageSize, int maxPages) {
+        this(source, pageSize, maxPages, Executors.newVirtualThreadPerTaskExecutor(), Platform::runLater);
+    }
+
+    // The executor runs the queries of the page source, the result executor must run on the thread that uses the list
+    public PagedList(PageSource<T> source, int pageSize, int maxPages, Executor executor, Executor resultExecutor) {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.executor = executor;
+        this.resultExecutor = resultExecutor;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) { // In access order, for the LRU
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPages;
+            }
+        };
+        refresh();
+    }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        int page = index / pageSize;
+        List<T> rows = pages.get(page);
+        if (rows == null)
+            load(page);
+        load(page + 1); // Prefetch
+
+        int row = index % pageSize;
+        return rows != null && row < rows.size() ? rows.get(row) : null; // Rows may have been deleted since the count
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int loadedPages() {
+        return pages.size();
+    }
+
+    // Counts the rows again and drops all pages, e.g. after rows were written
+    public void refresh() {
+        long current = ++generation;
+        pages.clear();
+        loading.clear();
+        CompletableFuture.supplyAsync(source::count, executor)
+                .whenComplete((count, exception) -> resultExecutor.execute(() -> {
+                    if (current != generation)
+                        return;
+                    if (exception != null) {
+                        log.error("Rows could not be counted: " + exception.getMessage());
+                        exception.printStackTrace();
+                        return;
+                    }
+                    resize((int) Math.min(count, Integer.MAX_VALUE));
+                }));
+    }
+
+    private void load(int page) {
+        if ((long) page * pageSize >= size || pages.containsKey(page) || !loading.add(page))
+            return;
+
+        long current = generation;
+        CompletableFuture.supplyAsync(() -> source.page(page * pageSize, pageSize), executor)
+                .whenComplete((rows, exception) -> resultExecutor.execute(() -> {
+                    if (current != generation)
+                        return;
+                    loading.remove(page);
+                    if (exception != null) {
+                        log.error("Page " + page + " could not be loaded: " + exception.getMessage());
+                        exception.printStackTrace();
+                        return;
+                    }
+                    pages.put(page, rows);
+                    replaced(page * pageSize, Math.min((page + 1) * pageSize, size));
+                }));
+    }
+
+    // All rows are replaced with rows that are not loaded yet
+    private void resize(int newSize) {
+        int oldSize = size;
+        size = newSize;
+        if (oldSize == 0 && newSize == 0)
+            return;
+        beginChange();
+        nextReplaced(0, newSize, Collections.nCopies(oldSize, null));
+        endChange();
+    }
+
+    // Rows that were null are replaced with the loaded ones
+    private void replaced(int from, int to) {
+        if (from >= to)
+            return;
+        beginChange();
+        nextReplaced(from, to, Collections.nCopies(to - from, null));
+        endChange();
+    }
+}
@@ -0,0 +1,180 @@
+package org.nico.quoted.model;
+
+import org.nico.quoted.domain.Identifiable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Collects the not yet persisted changes of one entity type for the WriteBehindQueue
+// Entities are tracked by identity, as their natural keys (title, url, ...) change while they are edited
+
+public class PendingChanges<T extends Identifiable> {
+
+    private enum Operation { CREATE, UPDATE, DELETE }
+
+    public record Changes<T>(List<T> created, List<T> updated, List<T> deleted) {
+        public boolean isEmpty() {
+            return created.isEmpty() && updated.isEmpty() && deleted.isEmpty();
+        }
+    }
+
+    private record Key(Object entity) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && key.entity == this.entity;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(entity);
+        }
+    }
+
+    private final Map<Key, Operation> operations = new LinkedHashMap<>();
+    private final Map<T, T> predecessors = new IdentityHashMap<>(); // Replacing entity -> replaced entity, to take over its id
+    private final Runnable onChange;
+
+    public PendingChanges(Runnable onChange) {
+        this.onChange = onChange;
+    }
+
+    public void registerNew(T t) {
+        synchronized (this) {
+            Operation pending = operations.remove(new Key(t));
+            // Re-adding a removed entity that is already persisted only needs an update
+            if (pending == Operation.DELETE && t.getId() != 0)
+                operations.put(new Key(t), Operation.UPDATE);
+            else
+                operations.put(new Key(t), Operation.CREATE);
+        }
+        onChange.run();
+    }
+
+    public void registerDirty(T t) {
+        synchronized (this) {
+            Key key = new Key(t);
+            if (operations.get(key) != Operation.CREATE)
+                operations.put(key, Operation.UPDATE);
+        }
+        onChange.run();
+    }
+
+    public void registerRemoved(T t) {
+        synchronized (this) {
+            Key key = new Key(t);
+            // Entities that were never written do not need to be deleted
+            if (operations.remove(key) != Operation.CREATE)
+                operations.put(key, Operation.DELETE); // Appended, so deletes run after the changes registered before them
+            else
+                predecessors.remove(t);
+        }
+        onChange.run();
+    }
+
+    public void registerReplaced(T replaced, T replacing) {
+        if (replaced == replacing) {
+            registerDirty(replacing);
+            return;
+        }
+
+        synchronized (this) {
+            Operation pending = operations.remove(new Key(replaced));
+            T predecessor = predecessors.remove(replaced);
+
+            if (pending == Operation.CREATE)
+                operations.put(new Key(replacing), Operation.CREATE);
+            else {
+                predecessors.put(replacing, predecessor != null ? predecessor : replaced);
+                operations.put(new Key(replacing), Operation.UPDATE);
+            }
+        }
+        onChange.run();
+    }
+
+    public synchronized int size() {
+        return operations.size();
+    }
+
+    // Returns all pending changes and starts collecting anew
+    @SuppressWarnings("unchecked")
+    public Changes<T> drain() {
+        Map<Key, Operation> drainedOperations;
+        Map<T, T> drainedPredecessors;
+        synchronized (this) {
+            drainedOperations = new LinkedHashMap<>(operations);
+            drainedPredecessors = new IdentityHashMap<>(predecessors);
+            operations.clear();
+            predecessors.clear();
+        }
+
+        List<T> created = new ArrayList<>();
+        List<T> updated = new ArrayList<>();
+        List<T> deleted = new ArrayList<>();
+
+        drainedOperations.forEach((key, operation) -> {
+            T t = (T) key.entity();
+
+            // The replaced entity may only have received its id from a previous write
+            T predecessor = drainedPredecessors.get(t);
+            if (t.getId() == 0 && predecessor != null)
+                t.setId(predecessor.getId());
+
+            switch (operation) {
+                case CREATE -> created.add(t);
+                case UPDATE -> updated.add(t);
+                case DELETE -> {
+                    if (t.getId() != 0)
+                        deleted.add(t);
+                }
+            }
+        });
+
+        return new Changes<>(created, updated, deleted);
+    }
+
+    // Puts back drained changes that could not be written, merged with and ahead of the changes registered since
+    // The ids that created entities received in the failed write are left to the caller, on the thread owning the entities
+    @SuppressWarnings("unchecked")
+    public void restore(Changes<T> changes) {
+        synchronized (this) {
+            Map<Key, Operation> restored = new LinkedHashMap<>();
+            changes.created().forEach(t -> restored.put(new Key(t), Operation.CREATE));
+            changes.updated().forEach(t -> restored.put(new Key(t), Operation.UPDATE));
+            changes.deleted().forEach(t -> restored.put(new Key(t), Operation.DELETE));
+
+            // Entities replaced since the drain: the replacing entity takes over their operation
+            Map<T, T> successors = new IdentityHashMap<>();
+            predecessors.forEach((replacing, replaced) -> successors.put(replaced, replacing));
+
+            Map<Key, Operation> merged = new LinkedHashMap<>();
+            restored.forEach((key, before) -> {
+                T successor = successors.get((T) key.entity());
+                if (successor == null)
+                    merge(merged, key, before, operations.remove(key));
+                else if (before == Operation.CREATE) {
+                    predecessors.remove(successor); // Never written, so there is no row to take over
+                    merge(merged, new Key(successor), before, operations.remove(new Key(successor)));
+                }
+                // Otherwise the pending update of the replacing entity takes over the row
+            });
+            merged.putAll(operations);
+
+            operations.clear();
+            operations.putAll(merged);
+        }
+    }
+
+    // Combines an operation that could not be written with the one registered for the same entity since, like register* would
+    private static void merge(Map<Key, Operation> merged, Key key, Operation before, Operation since) {
+        Operation operation = since == null ? before : switch (before) {
+            case CREATE -> since == Operation.DELETE ? null : Operation.CREATE;
+            case UPDATE -> since == Operation.DELETE ? Operation.DELETE : Operation.UPDATE;
+            case DELETE -> since == Operation.DELETE ? Operation.DELETE : Operation.UPDATE; // Added again, the row still exists
+        };
+        if (operation != null)
+            merged.put(key, operation);
+    }
+}
@@ -0,0 +1,126 @@
+package org.nico.quoted.model;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.nico.quoted.domain.Quote;
+import org.nico.quoted.domain.Source;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Live multimap from each source to its quotes, kept up to date as a listener of the quote list
+// Quotes are grouped under the instance of their source in the source list, found through the source index, so a
+// source with an equal but separate instance shares the group. Groups are keyed by identity, as sources are edited in place.
+
+class QuotesBySource implements ListChangeListener<Quote> {
+    private final NaturalKeyIndex<Source> sourceIndex;
+    private final Map<Source, ObservableList<Quote>> quotesBySource = new IdentityHashMap<>();
+    private final Map<Quote, Member> members = new IdentityHashMap<>();
+
+    // The group a quote instance was put in, and how often the instance is listed
+    private record Member(Source key, int count) {
+    }
+
+    QuotesBySource(NaturalKeyIndex<Source> sourceIndex) {
+        this.sourceIndex = sourceIndex;
+    }
+
+    // Removed quotes are collected per group and removed in one pass over each group, so removing all k quotes of a
+    // source, as when the source is deleted, is O(k)
+    @Override
+    public void onChanged(Change<? extends Quote> c) {
+        Map<Source, Map<Quote, Integer>> removedByGroup = new IdentityHashMap<>();
+        while (c.next()) {
+            c.getRemoved().forEach(quote -> {
+                Member member = members.get(quote);
+                if (member == null)
+                    return;
+                if (member.count() > 1)
+                    members.put(quote, new Member(member.key(), member.count() - 1));
+                else
+                    members.remove(quote);
+                removedByGroup.computeIfAbsent(member.key(), k -> new IdentityHashMap<>()).merge(quote, 1, Integer::sum);
+            });
+            c.getAddedSubList().forEach(this::add);
+        }
+        removedByGroup.forEach(this::remove);
+    }
+
+    // The returned list stays up to date with the quote list once the source has had quotes; before, it is an empty list
+    // that does not, so that looking up a source does not create a group for it
+    public ObservableList<Quote> get(Source source) {
+        ObservableList<Quote> quotes = quotesBySource.get(keyOf(source));
+        if (quotes == null)
+            return FXCollections.emptyObservableList();
+        return FXCollections.unmodifiableObservableList(quotes);
+    }
+
+    public boolean isEmpty(Source source) {
+        ObservableList<Quote> quotes = quotesBySource.get(keyOf(source));
+        return quotes == null || quotes.isEmpty();
+    }
+
+    // To be called when a source is replaced by another instance; its quotes and their group move to the new instance
+    public void move(Source from, Source to) {
+        Source fromKey = keyOf(from);
+        if (fromKey == to)
+            return;
+
+        ObservableList<Quote> quotes = quotesBySource.remove(fromKey);
+        if (quotes == null)
+            return;
+
+        quotes.forEach(quote -> members.computeIfPresent(quote, (q, member) -> new Member(to, member.count())));
+        ObservableList<Quote> existing = quotesBySource.putIfAbsent(to, quotes);
+        if (existing != null)
+            existing.addAll(quotes);
+    }
+
+    // An instance that is listed again joins the group it is already in
+    private void add(Quote quote) {
+        Member member = members.get(quote);
+        Source key = member != null ? member.key() : keyOf(quote.getSource());
+        group(key).add(quote);
+        members.put(quote, new Member(key, member != null ? member.count() + 1 : 1));
+    }
+
+    // Equal quotes may be listed twice, only as many occurrences of each instance as were removed are removed
+    // The remaining quotes are set at once, as removing them one by one from the list would shift it each time
+    private void remove(Source key, Map<Quote, Integer> removed) {
+        ObservableList<Quote> quotes = quotesBySource.get(key);
+        if (quotes == null)
+            return;
+
+        List<Quote> remaining = new ArrayList<>(quotes.size());
+        for (Quote quote : quotes) {
+            Integer count = removed.get(quote);
+            if (count == null)
+                remaining.add(quote);
+            else if (count > 1)
+                removed.put(quote, count - 1);
+            else
+                removed.remove(quote);
+        }
+
+        if (remaining.isEmpty())
+            quotes.clear();
+        else if (remaining.size() < quotes.size())
+            quotes.setAll(remaining);
+
+        // Groups of sources that are no longer listed are dropped with their last quote
+        if (quotes.isEmpty() && !sourceIndex.containsInstance(key))
+            quotesBySource.remove(key);
+    }
+
+    private ObservableList<Quote> group(Source key) {
+        return quotesBySource.computeIfAbsent(key, k -> FXCollections.observableArrayList());
+    }
+
+    private Source keyOf(Source source) {
+        Source listed = sourceIndex.find(source);
+        return listed != null ? listed : source;
+    }
+}
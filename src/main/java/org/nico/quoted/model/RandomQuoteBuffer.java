@@ -0,0 +1,107 @@
+package org.nico.quoted.model;
+
+import javafx.application.Platform;
+import lombok.extern.slf4j.Slf4j;
+import org.nico.quoted.domain.Quote;
+import org.nico.quoted.repository.RandomQuoteRepository;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+// Random quotes from the database, for showing random quotes before or without loading all quotes into the model
+// Keeps a buffer of prefetched quotes that is refilled in the background once it is half empty, so a random quote is
+// usually at hand at once. Quotes shown within the last window are skipped, as long as there are enough quotes.
+// Apart from the repository, it is only to be used on the FX thread.
+
+@Slf4j
+public class RandomQuoteBuffer {
+    private final RandomQuoteRepository repository;
+    private final int size;
+    private final int window;
+    private final Executor executor;
+    private final Executor resultExecutor;
+
+    private final Deque<Quote> buffer = new ArrayDeque<>();
+    private final Deque<Long> shownIds = new ArrayDeque<>();
+    private final Deque<CompletableFuture<Quote>> waiting = new ArrayDeque<>();
+    private boolean refilling;
+
+    public RandomQuoteBuffer(RandomQuoteRepository repository, int size, int window) {
+        this(repository, size, window, Executors.newVirtualThreadPerTaskExecutor(), Platform::runLater);
+    }
+
+    // The executor runs the queries, the result executor must run on the thread that uses the buffer
+    public RandomQuoteBuffer(RandomQuoteRepository repository, int size, int window, Executor executor, Executor resultExecutor) {
+        this.repository = repository;
+        this.size = size;
+        this.window = window;
+        this.executor = executor;
+        this.resultExecutor = resultExecutor;
+    }
+
+    // Completes with null if there are no quotes
+    public CompletableFuture<Quote> next() {
+        CompletableFuture<Quote> next = new CompletableFuture<>();
+        waiting.add(next);
+        serve();
+        return next;
+    }
+
+    // Starts filling the buffer, e.g. before the random view is shown
+    public void prefetch() {
+        serve();
+    }
+
+    private void serve() {
+        while (!waiting.isEmpty() && !buffer.isEmpty())
+            waiting.poll().complete(shown(buffer.poll()));
+
+        if (buffer.size() <= size / 2 || !waiting.isEmpty())
+            refill();
+    }
+
+    private Quote shown(Quote quote) {
+        shownIds.add(quote.getId());
+        if (shownIds.size() > window)
+            shownIds.poll();
+        return quote;
+    }
+
+    private void refill() {
+        if (refilling)
+            return;
+        refilling = true;
+
+        CompletableFuture.supplyAsync(() -> repository.readRandom(size), executor)
+                .whenComplete((quotes, exception) -> resultExecutor.execute(() -> {
+                    refilling = false;
+                    if (exception != null) {
+                        log.error("Random quotes could not be prefetched: " + exception.getMessage());
+                        exception.printStackTrace();
+                        waiting.forEach(next -> next.completeExceptionally(exception));
+                        waiting.clear();
+                        return;
+                    }
+                    if (quotes.isEmpty()) {
+                        waiting.forEach(next -> next.complete(null)); // No quotes at all
+                        waiting.clear();
+                        return;
+                    }
+
+                    List<Quote> unseen = quotes.stream()
+                            .filter(quote -> !shownIds.contains(quote.getId()) && buffer.stream().noneMatch(quote::equals))
+                            .toList();
+                    if (!unseen.isEmpty()) {
+                        buffer.addAll(unseen);
+                        serve();
+                    } else if (!waiting.isEmpty()) {
+                        // As few quotes as the window, repeats cannot be avoided
+                        buffer.addAll(quotes);
+                        while (!waiting.isEmpty() && !buffer.isEmpty())
+                            waiting.poll().complete(shown(buffer.poll()));
+                    }
+                }));
+    }
+}
@@ -1,21 +1,53 @@
 package org.nico.quoted.model;
 
+import javafx.application.Platform;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.nico.quoted.config.DBConfig;
 import org.nico.quoted.domain.Article;
 import org.nico.quoted.domain.Author;
 import org.nico.quoted.domain.Book;
 import org.nico.quoted.domain.Quote;
-import org.nico.quoted.repository.CRUDRepository;
-import org.nico.quoted.repository.RepositoryImplementation;
+import org.nico.quoted.repository.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 // A model that contains all the repositories to be used in the ClientModel
 // Enables mocking of the repositories in the ClientModel for unit testing
+// The repositories are those of the storage selected in DBConfig.STORAGE, see StorageProvider
 
 @Getter
 public class RepositoryModel {
-    private final CRUDRepository<Author> authorRepository = new RepositoryImplementation<>(Author.class, DBConfig.EMF);
-    private final CRUDRepository<Book> bookRepository = new RepositoryImplementation<>(Book.class, DBConfig.EMF);
-    private final CRUDRepository<Article> articleRepository = new RepositoryImplementation<>(Article.class, DBConfig.EMF);
-    private final CRUDRepository<Quote> quoteRepository = new RepositoryImplementation<>(Quote.class, DBConfig.EMF);
+    private final CRUDRepository<Author> authorRepository;
+    private final CRUDRepository<Book> bookRepository;
+    private final CRUDRepository<Article> articleRepository;
+    private final CRUDRepository<Quote> quoteRepository;
+    private final SnapshotRepository snapshotRepository;
+    private final QuoteSearchRepository quoteSearchRepository;
+    private final RandomQuoteRepository randomQuoteRepository;
+    private final UnitOfWorkRepository unitOfWorkRepository;
+
+    // The async repository runs each call on its own virtual thread and completes on the FX thread
+    @Getter(AccessLevel.NONE)
+    private final ExecutorService asyncExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AsyncSnapshotRepository asyncSnapshotRepository;
+
+    // Waits for the boot of the storage, see StorageProvider.boot
+    public RepositoryModel() {
+        this(StorageProvider.find(DBConfig.STORAGE).open());
+    }
+
+    public RepositoryModel(Storage storage) {
+        this.authorRepository = storage.repository(Author.class);
+        this.bookRepository = storage.repository(Book.class);
+        this.articleRepository = storage.repository(Article.class);
+        this.quoteRepository = storage.repository(Quote.class);
+        this.snapshotRepository = storage.snapshotRepository();
+        this.quoteSearchRepository = storage.quoteSearchRepository();
+        this.randomQuoteRepository = storage.randomQuoteRepository();
+        this.unitOfWorkRepository = storage.unitOfWorkRepository();
+
+        this.asyncSnapshotRepository = new AsyncSnapshotRepository(snapshotRepository, asyncExecutor, Platform::runLater);
+    }
 }
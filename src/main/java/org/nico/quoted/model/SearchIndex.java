@@ -0,0 +1,218 @@
+package org.nico.quoted.model;
+
+import javafx.collections.ListChangeListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// Inverted index for the full-text search over an ObservableList, kept up to date as a listener of the list
+// Texts are split into tokens of letters and digits, which are case-folded and stripped of accents. A search returns the
+// elements that contain, for every token of the search string, a token starting with it; "herr ring" finds "Der Herr der Ringe".
+// An element may have several fields, each of which has to match on its own. Methods are synchronized, so that searches
+// can run in the background while the list is changed on the FX thread.
+
+class SearchIndex<T> implements ListChangeListener<T> {
+    private static final Pattern NON_TOKEN = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+
+    // The same instance may be listed more than once; the version tells whether it was indexed after a filter was created
+    private record Entry(String[] tokens, long position, int count, long version) {
+    }
+
+    private final List<Function<T, String>> fields;
+    private final NavigableMap<String, Set<T>> postings = new TreeMap<>(); // Sorted, so that a prefix is a range of tokens
+    private final Map<T, Entry> entries = new IdentityHashMap<>(); // Tokens as indexed, as elements are edited in place
+    private long nextPosition;
+    private long nextVersion;
+
+    @SafeVarargs
+    SearchIndex(Function<T, String>... fields) {
+        this.fields = List.of(fields);
+    }
+
+    @Override
+    public synchronized void onChanged(Change<? extends T> c) {
+        while (c.next()) {
+            List<Long> replacedPositions = new ArrayList<>();
+            c.getRemoved().forEach(t -> {
+                Entry entry = remove(t);
+                if (entry != null)
+                    replacedPositions.add(entry.position());
+            });
+
+            List<? extends T> added = c.getAddedSubList();
+            for (int i = 0; i < added.size(); i++) {
+                // A replacing element takes the place of the replaced one in the results
+                long position = c.wasReplaced() && i < replacedPositions.size() ? replacedPositions.get(i) : nextPosition++;
+                add(added.get(i), position);
+            }
+        }
+    }
+
+    // Elements with a field matching all tokens of the search string, in the order of the list
+    public synchronized List<T> search(String searchString) {
+        List<T> sorted = new ArrayList<>(matching(searchString));
+        sorted.sort(Comparator.comparingLong(t -> entries.get(t).position()));
+        return sorted;
+    }
+
+    // Like search, in no particular order
+    public synchronized Set<T> matching(String searchString) {
+        Set<String> searchTokens = new LinkedHashSet<>(tokenize(searchString));
+        Set<T> found = newIdentitySet();
+        if (!searchTokens.isEmpty()) {
+            for (int field = 0; field < fields.size(); field++)
+                found.addAll(search(field, searchTokens));
+        }
+        return found;
+    }
+
+    // Predicate for a filtered view of the list, matching like matching and following later changes of the list
+    // Elements indexed before the filter was created are looked up in the result of matching, elements added or re-indexed
+    // since are matched by their own tokens, as a filtered list only tests those again
+    public synchronized Predicate<T> filter(String searchString) {
+        List<String> searchTokens = List.copyOf(new LinkedHashSet<>(tokenize(searchString)));
+        Set<T> found = matching(searchString);
+        long indexedBefore = nextVersion;
+        return t -> matches(t, searchTokens, found, indexedBefore);
+    }
+
+    // To be called after the text of indexed elements was changed in place
+    public synchronized void reindex(Collection<? extends T> changed) {
+        Set<T> changedElements = newIdentitySet();
+        changedElements.addAll(changed);
+        changedElements.forEach(t -> {
+            Entry entry = entries.get(t);
+            if (entry == null)
+                return;
+
+            removePostings(t, entry.tokens());
+            String[] tokens = tokensOf(t);
+            entries.put(t, new Entry(tokens, entry.position(), entry.count(), nextVersion++));
+            addPostings(t, tokens);
+        });
+    }
+
+    private synchronized boolean matches(T t, List<String> searchTokens, Set<T> found, long indexedBefore) {
+        if (searchTokens.isEmpty())
+            return false;
+
+        Entry entry = entries.get(t);
+        if (entry != null && entry.version() < indexedBefore)
+            return found.contains(t);
+
+        String[] tokens = entry != null ? entry.tokens() : tokensOf(t);
+        for (int field = 0; field < fields.size(); field++) {
+            int f = field;
+            if (searchTokens.stream().allMatch(searchToken -> Arrays.stream(tokens)
+                    .anyMatch(token -> token.startsWith(qualified(f, searchToken)))))
+                return true;
+        }
+        return false;
+    }
+
+    // Splits into case-folded tokens without accents, e.g. "Ärger über Öl-Preise" into "arger", "uber", "ol", "preise"
+    static List<String> tokenize(String s) {
+        if (s == null || s.isBlank())
+            return List.of();
+
+        String withoutAccents = ACCENTS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        int[] folded = withoutAccents.codePoints()
+                .map(codePoint -> Character.toLowerCase(Character.toUpperCase(codePoint)))
+                .toArray();
+
+        return NON_TOKEN.splitAsStream(new String(folded, 0, folded.length))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private Set<T> search(int field, Set<String> searchTokens) {
+        List<Set<T>> matches = new ArrayList<>();
+        for (String searchToken : searchTokens) {
+            Set<T> match = withPrefix(qualified(field, searchToken));
+            if (match.isEmpty())
+                return Set.of();
+            matches.add(match);
+        }
+
+        // Intersection, starting with the smallest set
+        matches.sort(Comparator.comparingInt(Set::size));
+        Set<T> found = newIdentitySet();
+        for (T t : matches.get(0)) {
+            if (matches.stream().skip(1).allMatch(match -> match.contains(t)))
+                found.add(t);
+        }
+        return found;
+    }
+
+    private Set<T> withPrefix(String prefix) {
+        Collection<Set<T>> matching = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (matching.size() == 1)
+            return matching.iterator().next();
+
+        Set<T> union = newIdentitySet();
+        matching.forEach(union::addAll);
+        return union;
+    }
+
+    private void add(T t, long position) {
+        Entry listed = entries.get(t);
+        if (listed != null) {
+            entries.put(t, new Entry(listed.tokens(), listed.position(), listed.count() + 1, listed.version()));
+            return;
+        }
+
+        String[] tokens = tokensOf(t);
+        entries.put(t, new Entry(tokens, position, 1, nextVersion++));
+        addPostings(t, tokens);
+    }
+
+    private Entry remove(T t) {
+        Entry entry = entries.remove(t);
+        if (entry == null)
+            return null;
+        if (entry.count() > 1) {
+            entries.put(t, new Entry(entry.tokens(), entry.position(), entry.count() - 1, entry.version()));
+            return entry;
+        }
+
+        removePostings(t, entry.tokens());
+        return entry;
+    }
+
+    // Tokens of all fields, each qualified with the number of its field
+    private String[] tokensOf(T t) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (int field = 0; field < fields.size(); field++) {
+            for (String token : tokenize(fields.get(field).apply(t)))
+                tokens.add(qualified(field, token));
+        }
+        return tokens.toArray(String[]::new);
+    }
+
+    // Tokens contain no spaces, so the field number cannot run into the token
+    private static String qualified(int field, String token) {
+        return field + " " + token;
+    }
+
+    private void addPostings(T t, String[] tokens) {
+        for (String token : tokens)
+            postings.computeIfAbsent(token, k -> newIdentitySet()).add(t);
+    }
+
+    private void removePostings(T t, String[] tokens) {
+        for (String token : tokens) {
+            Set<T> posting = postings.get(token);
+            posting.remove(t);
+            if (posting.isEmpty())
+                postings.remove(token);
+        }
+    }
+
+    private static <T> Set<T> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>(4));
+    }
+}
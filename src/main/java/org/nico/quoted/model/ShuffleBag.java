@@ -0,0 +1,109 @@
+package org.nico.quoted.model;
+
+import javafx.collections.ListChangeListener;
+
+import java.util.*;
+
+// Random selection from an ObservableList without repeats, kept up to date as a listener of the list
+// Drawn elements rest in a queue for the last window draws before they can be drawn again; every draw, addition and
+// removal takes constant time. With more than one choice, that many candidates are sampled and the one shown longest
+// ago is drawn, which weights elements by the time since they were last shown.
+
+class ShuffleBag<T> implements ListChangeListener<T> {
+
+    private static final class Slot {
+        int count; // The same instance may be listed more than once
+        int position = -1; // In candidates, -1 while resting
+        long lastShown; // Number of the draw, 0 if never shown
+    }
+
+    private final int window;
+    private final int choices;
+    private final SplittableRandom random;
+    private final List<T> candidates = new ArrayList<>();
+    private final ArrayDeque<T> resting = new ArrayDeque<>();
+    private final Map<T, Slot> slots = new IdentityHashMap<>();
+    private long draws;
+
+    ShuffleBag(int window, int choices, SplittableRandom random) {
+        this.window = window;
+        this.choices = Math.max(1, choices);
+        this.random = random;
+    }
+
+    @Override
+    public void onChanged(Change<? extends T> c) {
+        while (c.next()) {
+            c.getRemoved().forEach(this::remove);
+            c.getAddedSubList().forEach(this::add);
+        }
+    }
+
+    // Null if the list is empty
+    public T next() {
+        if (candidates.isEmpty())
+            return null;
+
+        int drawn = random.nextInt(candidates.size());
+        for (int i = 1; i < choices; i++) {
+            int other = random.nextInt(candidates.size());
+            if (lastShown(other) < lastShown(drawn))
+                drawn = other;
+        }
+
+        T t = candidates.get(drawn);
+        removeCandidate(t);
+        slots.get(t).lastShown = ++draws;
+        resting.add(t);
+        releaseRested();
+        return t;
+    }
+
+    private void add(T t) {
+        Slot slot = slots.computeIfAbsent(t, k -> new Slot());
+        if (slot.count++ == 0)
+            addCandidate(t, slot);
+        releaseRested(); // The window may have grown with the list
+    }
+
+    private void remove(T t) {
+        Slot slot = slots.get(t);
+        if (slot == null || --slot.count > 0)
+            return;
+
+        if (slot.position >= 0)
+            removeCandidate(t);
+        else
+            resting.removeIf(rested -> rested == t); // At most window elements
+        slots.remove(t);
+        releaseRested();
+    }
+
+    // At least one element stays a candidate, so a list of n elements repeats after at most n - 1 draws
+    private void releaseRested() {
+        while (!resting.isEmpty() && resting.size() > Math.min(window, slots.size() - 1)) {
+            T t = resting.poll();
+            addCandidate(t, slots.get(t));
+        }
+    }
+
+    private void addCandidate(T t, Slot slot) {
+        slot.position = candidates.size();
+        candidates.add(t);
+    }
+
+    // Swaps the last candidate into the gap
+    private void removeCandidate(T t) {
+        Slot slot = slots.get(t);
+        T last = candidates.remove(candidates.size() - 1);
+        if (last != t) {
+            candidates.set(slot.position, last);
+            slots.get(last).position = slot.position;
+        }
+        slot.position = -1;
+    }
+
+    private long lastShown(int position) {
+        return slots.get(candidates.get(position)).lastShown;
+    }
+}
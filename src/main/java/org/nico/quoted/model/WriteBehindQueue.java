@@ -0,0 +1,161 @@
+package org.nico.quoted.model;
+
+import javafx.application.Platform;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.nico.quoted.domain.Article;
+import org.nico.quoted.domain.Author;
+import org.nico.quoted.domain.Book;
+import org.nico.quoted.domain.Identifiable;
+import org.nico.quoted.domain.Quote;
+import org.nico.quoted.repository.UnitOfWorkRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Unit of work for the ClientModel: collects changes from the list listeners and writes them in one transaction
+// in the background, either every flushInterval or as soon as flushThreshold changes are pending
+
+@Slf4j
+public class WriteBehindQueue implements AutoCloseable {
+    @Getter private final PendingChanges<Author> authors = new PendingChanges<>(this::onChange);
+    @Getter private final PendingChanges<Book> books = new PendingChanges<>(this::onChange);
+    @Getter private final PendingChanges<Article> articles = new PendingChanges<>(this::onChange);
+    @Getter private final PendingChanges<Quote> quotes = new PendingChanges<>(this::onChange);
+
+    private final UnitOfWorkRepository unitOfWorkRepository;
+    private final List<Runnable> writeListeners = new CopyOnWriteArrayList<>();
+
+    private final int flushThreshold;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object flushLock = new Object();
+
+    private final Executor ownerExecutor; // Runs on the thread owning the entities, the FX thread
+    private volatile List<Identifiable> failedCreates; // Created in a failed write, their ids are not reset yet
+
+    public WriteBehindQueue(RepositoryModel repositoryModel, long flushInterval, int flushThreshold) {
+        this(repositoryModel, flushInterval, flushThreshold, Platform::runLater);
+    }
+
+    public WriteBehindQueue(RepositoryModel repositoryModel, long flushInterval, int flushThreshold, Executor ownerExecutor) {
+        this.unitOfWorkRepository = repositoryModel.getUnitOfWorkRepository();
+        this.flushThreshold = flushThreshold;
+        this.ownerExecutor = ownerExecutor;
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::flushSafely, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private void onChange() {
+        if (pendingChanges() >= flushThreshold && flushRequested.compareAndSet(false, true) && !executor.isShutdown())
+            executor.execute(this::flushSafely);
+    }
+
+    // The listener runs on the writing thread after pending changes were written, not after a failed write
+    public void addWriteListener(Runnable listener) {
+        writeListeners.add(listener);
+    }
+
+    public int pendingChanges() {
+        return authors.size() + books.size() + articles.size() + quotes.size();
+    }
+
+    // Writes all pending changes in a single transaction; blocks until a write running in the background has finished
+    // If the write fails, the changes are put back and retried with the next flush, and the exception is thrown
+    public void flush() {
+        synchronized (flushLock) {
+            flushRequested.set(false);
+
+            // The changes stay pending until the owning thread has reset the ids of the failed write
+            if (failedCreates != null) {
+                log.info("Ids of a failed write are not reset yet, writing with the next flush.");
+                return;
+            }
+
+            PendingChanges.Changes<Author> authorChanges = authors.drain();
+            PendingChanges.Changes<Book> bookChanges = books.drain();
+            PendingChanges.Changes<Article> articleChanges = articles.drain();
+            PendingChanges.Changes<Quote> quoteChanges = quotes.drain();
+
+            if (authorChanges.isEmpty() && bookChanges.isEmpty() && articleChanges.isEmpty() && quoteChanges.isEmpty())
+                return;
+
+            // Referenced entities are created first and deleted last
+            List<Identifiable> created = concat(authorChanges.created(), bookChanges.created(), articleChanges.created(), quoteChanges.created());
+            List<Identifiable> updated = concat(authorChanges.updated(), bookChanges.updated(), articleChanges.updated(), quoteChanges.updated());
+            List<Identifiable> deleted = concat(quoteChanges.deleted(), bookChanges.deleted(), articleChanges.deleted(), authorChanges.deleted());
+
+            try {
+                unitOfWorkRepository.write(created, updated, deleted);
+            } catch (RuntimeException e) {
+                authors.restore(authorChanges);
+                books.restore(bookChanges);
+                articles.restore(articleChanges);
+                quotes.restore(quoteChanges);
+
+                // The write was rolled back, so the ids the created entities received are reset, but not here:
+                // the entities belong to the owning thread, which may be reading them
+                failedCreates = created;
+                ownerExecutor.execute(this::resetFailedIds);
+                throw e;
+            }
+
+            log.info("Wrote " + (created.size() + updated.size() + deleted.size()) + " pending changes to repositories.");
+            writeListeners.forEach(Runnable::run);
+        }
+    }
+
+    private void resetFailedIds() {
+        List<Identifiable> created = failedCreates;
+        if (created == null)
+            return;
+        created.forEach(identifiable -> identifiable.setId(0));
+        failedCreates = null; // Publishes the reset ids to the next flush
+    }
+
+    @SafeVarargs
+    private static List<Identifiable> concat(List<? extends Identifiable>... lists) {
+        List<Identifiable> all = new ArrayList<>();
+        for (List<? extends Identifiable> list : lists)
+            all.addAll(list);
+        return all;
+    }
+
+    // An exception must not end the scheduled writes; the changes stay pending for the next one
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Error while writing pending changes, retrying with the next write: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // To be called on the thread owning the entities, which resets the ids of a failed write itself
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS))
+                log.warn("Background write did not finish in time.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        resetFailedIds();
+        flushSafely();
+        if (pendingChanges() > 0)
+            log.error(pendingChanges() + " pending changes could not be written.");
+        log.info("Write-behind queue closed.");
+    }
+}
@@ -0,0 +1,33 @@
+package org.nico.quoted.repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+// Non-blocking counterpart of SnapshotRepository: runs the reads on the given executor and hands the chunks and the
+// result over to the result executor, the FX thread in the app
+
+public class AsyncSnapshotRepository {
+    private final SnapshotRepository repository;
+    private final Executor executor;
+    private final Executor resultExecutor;
+
+    public AsyncSnapshotRepository(SnapshotRepository repository, Executor executor, Executor resultExecutor) {
+        this.repository = repository;
+        this.executor = executor;
+        this.resultExecutor = resultExecutor;
+    }
+
+    // Chunks are handed over on the result executor as they arrive, the result completes after the last one
+    public CompletableFuture<Void> readSnapshot(int chunkSize, Consumer<SnapshotRepository.Snapshot> onChunk) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        CompletableFuture.runAsync(() -> repository.readSnapshot(chunkSize, chunk -> resultExecutor.execute(() -> onChunk.accept(chunk))), executor)
+                .whenComplete((nothing, exception) -> resultExecutor.execute(() -> {
+                    if (exception != null)
+                        result.completeExceptionally(exception);
+                    else
+                        result.complete(null);
+                }));
+        return result;
+    }
+}
@@ -1,12 +1,27 @@
 package org.nico.quoted.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CRUDRepository<T> {
     void create(T t);
     Optional<T> readById(long id); // TODO unused - needed?
     List<T> readAll();
+    // Loads the associations of the named entity graph (e.g. Quote.GRAPH_WITH_SOURCE) with the same query
+    Optional<T> readById(long id, String entityGraph);
+    List<T> readAll(String entityGraph);
+    // Pages are ordered by id, so consecutive pages neither skip nor repeat rows
+    List<T> readPage(int offset, int limit);
+    List<T> readAfter(long lastId, int limit); // Keyset pagination: the next limit rows with an id greater than lastId
+    long count();
+    Stream<T> streamAll(); // Reads lazily ordered by id; must be closed, e.g. with try-with-resources
     void update(T t);
     void delete(T t);
+
+    // Bulk operations, each running in a single transaction
+    void createAll(Collection<? extends T> ts);
+    void updateAll(Collection<? extends T> ts);
+    void deleteAll(Collection<? extends T> ts);
 }
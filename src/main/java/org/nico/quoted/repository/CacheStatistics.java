@@ -0,0 +1,41 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+// Hit and miss counts of the second-level and query cache since the start, requires hibernate.generate_statistics, see DBConfig.CACHE_STATISTICS
+
+public record CacheStatistics(long secondLevelCacheHits, long secondLevelCacheMisses, long secondLevelCachePuts,
+                              long queryCacheHits, long queryCacheMisses, long queryCachePuts) {
+
+    public static CacheStatistics of(EntityManagerFactory emf) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        return new CacheStatistics(
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount());
+    }
+
+    public double secondLevelCacheHitRatio() {
+        return ratio(secondLevelCacheHits, secondLevelCacheMisses);
+    }
+
+    public double queryCacheHitRatio() {
+        return ratio(queryCacheHits, queryCacheMisses);
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Second-level cache: %d hits, %d misses (%.0f %%), %d puts; query cache: %d hits, %d misses (%.0f %%), %d puts",
+                secondLevelCacheHits, secondLevelCacheMisses, secondLevelCacheHitRatio() * 100, secondLevelCachePuts,
+                queryCacheHits, queryCacheMisses, queryCacheHitRatio() * 100, queryCachePuts);
+    }
+}
@@ -0,0 +1,56 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.nico.quoted.config.DBConfig;
+import org.nico.quoted.domain.Identifiable;
+
+import java.util.concurrent.CompletableFuture;
+
+// The database configured in persistence.xml, or the embedded database, through the EntityManagerFactory of DBConfig
+
+public class JpaStorageProvider implements StorageProvider {
+    public static final String NAME = "jpa";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<Void> boot() {
+        return DBConfig.bootEntityManagerFactory().thenAccept(emf -> { });
+    }
+
+    @Override
+    public Storage open() {
+        return new JpaStorage(DBConfig.entityManagerFactory());
+    }
+
+    public record JpaStorage(EntityManagerFactory emf) implements Storage {
+
+        @Override
+        public <T extends Identifiable> CRUDRepository<T> repository(Class<T> type) {
+            return new RepositoryImplementation<>(type, emf);
+        }
+
+        @Override
+        public SnapshotRepository snapshotRepository() {
+            return new SnapshotRepositoryImplementation(emf);
+        }
+
+        @Override
+        public QuoteSearchRepository quoteSearchRepository() {
+            return new QuoteSearchRepositoryImplementation(emf);
+        }
+
+        @Override
+        public RandomQuoteRepository randomQuoteRepository() {
+            return new RandomQuoteRepositoryImplementation(emf);
+        }
+
+        @Override
+        public UnitOfWorkRepository unitOfWorkRepository() {
+            return new UnitOfWorkRepositoryImplementation(emf);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.nico.quoted.repository;
+
+import org.nico.quoted.domain.Quote;
+
+import java.util.List;
+
+// Full-text search over the quotes in the database, for archives too large to search in memory
+
+public interface QuoteSearchRepository {
+
+    // Quotes matching the search string in their text or in the title or origin of their source, best matches first
+    List<Quote> search(String searchString, int offset, int limit);
+
+    long count(String searchString);
+}
@@ -0,0 +1,139 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.nico.quoted.domain.Quote;
+
+import java.util.*;
+
+import static org.nico.quoted.repository.Transactions.inTransaction;
+
+// On postgresql, searches quote.search_vector with its GIN index and ranks with ts_rank, see the migration V4__quote_search.sql
+// On other databases, or as long as that migration was not applied, falls back to a like query per word on the same
+// columns: text, title, url and author
+
+@Slf4j
+public class QuoteSearchRepositoryImplementation implements QuoteSearchRepository {
+    private static final String FULL_TEXT_IDS = """
+            select q.id from quote q, websearch_to_tsquery('simple', :searchString) query
+            where q.search_vector @@ query
+            order by ts_rank(q.search_vector, query) desc, q.id
+            offset :offset limit :limit""";
+    private static final String FULL_TEXT_COUNT = """
+            select count(*) from quote q
+            where q.search_vector @@ websearch_to_tsquery('simple', :searchString)""";
+    private static final String SEARCH_VECTOR_EXISTS = """
+            select count(*) from information_schema.columns
+            where table_name = 'quote' and column_name = 'search_vector'""";
+
+    private final EntityManagerFactory emf;
+    private volatile Boolean fullTextSearch; // Checked on first use
+
+    public QuoteSearchRepositoryImplementation(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @Override
+    public List<Quote> search(String searchString, int offset, int limit) {
+        if (searchString == null || searchString.isBlank())
+            return new ArrayList<>();
+
+        try {
+            return inTransaction(emf, em -> usesFullTextSearch(em)
+                    ? searchFullText(em, searchString, offset, limit)
+                    : searchLike(em, searchString, offset, limit));
+        } catch (IllegalStateException | PersistenceException e) {
+            log.error("Error while searching quotes for " + searchString + ": " + e.getMessage());
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public long count(String searchString) {
+        if (searchString == null || searchString.isBlank())
+            return 0;
+
+        try {
+            return inTransaction(emf, em -> usesFullTextSearch(em)
+                    ? ((Number) em.createNativeQuery(FULL_TEXT_COUNT)
+                            .setParameter("searchString", searchString)
+                            .getSingleResult()).longValue()
+                    : likeQuery(em, "select count(q) from Quote q join q.source s", "", searchString, Long.class)
+                            .getSingleResult());
+        } catch (IllegalStateException | PersistenceException e) {
+            log.error("Error while counting quotes for " + searchString + ": " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    // Ranked ids from the index, then the quotes with their sources in one query
+    private List<Quote> searchFullText(EntityManager em, String searchString, int offset, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Number> ids = em.createNativeQuery(FULL_TEXT_IDS)
+                .setParameter("searchString", searchString)
+                .setParameter("offset", offset)
+                .setParameter("limit", limit)
+                .getResultList();
+        if (ids.isEmpty())
+            return new ArrayList<>();
+
+        Map<Long, Integer> rankOfId = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++)
+            rankOfId.put(ids.get(i).longValue(), i);
+
+        List<Quote> quotes = new ArrayList<>(em.createQuery("select q from Quote q join fetch q.source where q.id in :ids", Quote.class)
+                .setParameter("ids", rankOfId.keySet())
+                .getResultList());
+        quotes.sort(Comparator.comparing(quote -> rankOfId.get(quote.getId())));
+        return quotes;
+    }
+
+    private List<Quote> searchLike(EntityManager em, String searchString, int offset, int limit) {
+        return likeQuery(em, "select q from Quote q join fetch q.source s", " order by q.id", searchString, Quote.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Every word must be contained in the text of the quote, the title of its source or the origin of the source, the url
+    // of an article or the name of the author of a book, as in quote.search_vector
+    private <R> TypedQuery<R> likeQuery(EntityManager em, String select, String orderBy, String searchString, Class<R> resultType) {
+        List<String> words = Arrays.stream(searchString.trim().toLowerCase(Locale.ROOT).split("\\s+")).toList();
+
+        StringJoiner where = new StringJoiner(" and ", " where ", "");
+        for (int i = 0; i < words.size(); i++) {
+            String like = " like :word" + i + " escape '\\'";
+            where.add("(lower(q.text)" + like + " or lower(s.title)" + like
+                    + " or s.id in (select a.id from Article a where lower(a.url)" + like + ")"
+                    + " or s.id in (select b.id from Book b join b.author au where lower(au.firstName)" + like
+                    + " or lower(au.lastName)" + like + "))");
+        }
+
+        TypedQuery<R> query = em.createQuery(select + where + orderBy, resultType);
+        for (int i = 0; i < words.size(); i++)
+            query.setParameter("word" + i, "%" + escapeLike(words.get(i)) + "%");
+        return query;
+    }
+
+    private static String escapeLike(String word) {
+        return word.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private boolean usesFullTextSearch(EntityManager em) {
+        if (fullTextSearch == null) {
+            boolean postgresql = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+            fullTextSearch = postgresql
+                    && ((Number) em.createNativeQuery(SEARCH_VECTOR_EXISTS).getSingleResult()).intValue() > 0;
+            if (!fullTextSearch)
+                log.warn("Full-text search not available, searching quotes with like queries.");
+        }
+        return fullTextSearch;
+    }
+}
@@ -0,0 +1,13 @@
+package org.nico.quoted.repository;
+
+import org.nico.quoted.domain.Quote;
+
+import java.util.List;
+
+// Random quotes drawn by the database, so that a random quote does not need all quotes in memory
+
+public interface RandomQuoteRepository {
+
+    // Up to count distinct quotes with their sources, fewer if there are fewer quotes
+    List<Quote> readRandom(int count);
+}
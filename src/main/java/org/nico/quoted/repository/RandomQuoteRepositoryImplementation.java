@@ -0,0 +1,125 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.nico.quoted.domain.Quote;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.nico.quoted.repository.Transactions.inTransaction;
+
+// Draws the ids of random quotes, then reads the quotes with their sources in one query
+// On postgresql, the ids come from a bernoulli table sample of about twice as many rows as requested, relative to a
+// cached count of the quotes. Elsewhere, independent random ids between the cached smallest and largest id are looked up
+// in the primary key index; ids that fall into the gaps the pooled-lo sequences leave are not found and drawn again, so
+// every quote is equally likely. The draws are sized by the share of ids in use, so one round usually suffices.
+// Failures are not logged but thrown, so that RandomQuoteBuffer can fail the quotes waiting for them.
+
+public class RandomQuoteRepositoryImplementation implements RandomQuoteRepository {
+    private static final long COUNT_MAX_AGE = 60_000; // milli seconds a count is used before quotes are counted again
+    private static final double OVERSAMPLING = 2; // Sampled rows per requested row, as the sample size varies
+    private static final String SAMPLE_IDS = "select id from quote tablesample bernoulli (%s) order by random() limit :limit";
+    private static final int MAX_ROUNDS = 4; // Of random ids looked up, before fewer quotes than requested are returned
+    private static final int MAX_DRAWS = 1_000; // Random ids looked up per round
+
+    private record IdRange(long count, long min, long max) {
+    }
+
+    private final EntityManagerFactory emf;
+    private volatile IdRange idRange; // Read at countedAt
+    private volatile long countedAt;
+    private Boolean tableSample; // Decided on first use
+
+    public RandomQuoteRepositoryImplementation(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @Override
+    public List<Quote> readRandom(int count) {
+        return inTransaction(emf, em -> {
+            List<Long> ids = randomIds(em, count);
+            if (ids.isEmpty())
+                return new ArrayList<>();
+
+            Map<Long, Quote> quotesById = new HashMap<>();
+            em.createQuery("select q from Quote q join fetch q.source where q.id in :ids", Quote.class)
+                    .setParameter("ids", ids)
+                    .getResultList()
+                    .forEach(quote -> quotesById.put(quote.getId(), quote));
+
+            List<Quote> quotes = new ArrayList<>();
+            ids.forEach(id -> {
+                Quote quote = quotesById.get(id);
+                if (quote != null)
+                    quotes.add(quote);
+            });
+            return quotes;
+        });
+    }
+
+    private List<Long> randomIds(EntityManager em, int n) {
+        IdRange cached = cachedIdRange(em);
+        if (cached.count() == 0 || n <= 0)
+            return new ArrayList<>();
+
+        List<Long> ids = usesTableSample() ? sampledIds(em, n, cached.count()) : lookedUpIds(em, n, cached);
+        if (ids.isEmpty())
+            idRange = null; // Quotes were deleted since they were counted
+        return ids;
+    }
+
+    private List<Long> sampledIds(EntityManager em, int n, long quotes) {
+        double percent = Math.min(100, 100 * OVERSAMPLING * n / quotes);
+        // The percentage is inlined, as the argument of tablesample is a real, which a double parameter is not cast to
+        List<?> ids = em.createNativeQuery(String.format(Locale.ROOT, SAMPLE_IDS, percent))
+                .setParameter("limit", n)
+                .getResultList();
+        return ids.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+
+    private List<Long> lookedUpIds(EntityManager em, int n, IdRange cached) {
+        long span = cached.max() - cached.min() + 1;
+        double inUse = Math.min(1, (double) cached.count() / span);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        List<Long> found = new ArrayList<>();
+        Set<Long> drawn = new HashSet<>();
+        for (int round = 0; round < MAX_ROUNDS && found.size() < n && drawn.size() < span; round++) {
+            long draws = Math.min(Math.min(MAX_DRAWS, span - drawn.size()), (long) Math.ceil(OVERSAMPLING * (n - found.size()) / inUse));
+            Set<Long> candidates = new HashSet<>();
+            while (candidates.size() < draws) {
+                long id = cached.min() + random.nextLong(span);
+                if (drawn.add(id))
+                    candidates.add(id);
+            }
+
+            List<Long> hits = new ArrayList<>(em.createQuery("select q.id from Quote q where q.id in :ids", Long.class)
+                    .setParameter("ids", candidates)
+                    .getResultList());
+            Collections.shuffle(hits); // Returned in the order of the index
+            hits.stream().limit(n - found.size()).forEach(found::add);
+        }
+        return found;
+    }
+
+    private IdRange cachedIdRange(EntityManager em) {
+        IdRange cached = idRange;
+        if (cached == null || System.currentTimeMillis() - countedAt > COUNT_MAX_AGE) {
+            Object[] row = em.createQuery("select count(q), coalesce(min(q.id), 0), coalesce(max(q.id), 0) from Quote q", Object[].class)
+                    .getSingleResult();
+            cached = new IdRange(((Number) row[0]).longValue(), ((Number) row[1]).longValue(), ((Number) row[2]).longValue());
+            idRange = cached;
+            countedAt = System.currentTimeMillis();
+        }
+        return cached;
+    }
+
+    private boolean usesTableSample() {
+        if (tableSample == null)
+            tableSample = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        return tableSample;
+    }
+}
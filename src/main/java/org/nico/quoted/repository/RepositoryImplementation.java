@@ -1,36 +1,48 @@
 package org.nico.quoted.repository;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.TypedQuery;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.AvailableHints;
+import org.nico.quoted.config.DBConfig;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.nico.quoted.repository.Transactions.inTransaction;
+import static org.nico.quoted.repository.Transactions.flushAndClearOnBatchEnd;
+import static org.nico.quoted.repository.Transactions.runInTransaction;
+
+// Thread-safe: every call works with its own EntityManager, which is closed when the call ends
 
 @Slf4j
 public class RepositoryImplementation<T> implements CRUDRepository<T> {
     private final Class<T> type;
     private final EntityManagerFactory emf;
-    private EntityManager em;
+    private final boolean cacheable; // Results of readAll are kept in the query cache, e.g. for the polymorphic read of all sources
 
     public RepositoryImplementation(Class<T> type, EntityManagerFactory emf) {
         this.type = type;
         this.emf = emf;
+        this.cacheable = isCacheable(type);
+    }
+
+    // Subclasses like Book are cached with their root entity
+    private static boolean isCacheable(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass())
+            if (c.isAnnotationPresent(Cacheable.class))
+                return true;
+        return false;
     }
 
     @Override
     public void create(T t) {
         try {
-            em = emf.createEntityManager();
-            em.getTransaction().begin();
-
-            em.persist(t);
-
-            em.getTransaction().commit();
-            em.close();
-
+            runInTransaction(emf, em -> em.persist(t));
         } catch (IllegalStateException e) {
             log.error("Error while creating Article: " + e.getMessage());
             e.printStackTrace();
@@ -42,13 +54,37 @@ public class RepositoryImplementation<T> implements CRUDRepository<T> {
     public Optional<T> readById(long id) {
         T t;
         try {
-            em = emf.createEntityManager();
-            em.getTransaction().begin();
+            t = inTransaction(emf, em -> em.find(type, id));
+        } catch (IllegalStateException e) {
+            log.warn("T not found.");
+            e.printStackTrace();
+            return Optional.empty();
+        }
+        return Optional.ofNullable(t);
+    }
 
-            t = em.find(type, id);
+    @Override
+    public List<T> readAll() {
+        List<T> ts = new ArrayList<>();
+        try {
+            ts = inTransaction(emf, em -> {
+                TypedQuery<T> query = em.createQuery("select t from " + type.getSimpleName() + " t", type)
+                        .setHint(AvailableHints.HINT_CACHEABLE, cacheable);
+                return query.getResultList();
+            });
+        } catch (IllegalStateException e) {
+            log.warn("No Ts could be retrieved.");
+            e.printStackTrace();
+        }
+        return ts;
+    }
 
-            em.getTransaction().commit();
-            em.close();
+    @Override
+    public Optional<T> readById(long id, String entityGraph) {
+        T t;
+        try {
+            t = inTransaction(emf, em -> em.find(type, id,
+                    Map.of(AvailableHints.HINT_SPEC_LOAD_GRAPH, em.getEntityGraph(entityGraph))));
         } catch (IllegalStateException e) {
             log.warn("T not found.");
             e.printStackTrace();
@@ -58,34 +94,118 @@ public class RepositoryImplementation<T> implements CRUDRepository<T> {
     }
 
     @Override
-    public List<T> readAll() {
+    public List<T> readAll(String entityGraph) {
         List<T> ts = new ArrayList<>();
         try {
-            em = emf.createEntityManager();
-            em.getTransaction().begin();
+            ts = inTransaction(emf, em -> em.createQuery("select t from " + type.getSimpleName() + " t", type)
+                    .setHint(AvailableHints.HINT_SPEC_LOAD_GRAPH, em.getEntityGraph(entityGraph))
+                    .getResultList());
+        } catch (IllegalStateException e) {
+            log.warn("No Ts could be retrieved with " + entityGraph + ".");
+            e.printStackTrace();
+        }
+        return ts;
+    }
 
-            TypedQuery<T> query = em.createQuery("select t from " + type.getSimpleName() + " t", type);
-            ts = query.getResultList();
+    @Override
+    public List<T> readPage(int offset, int limit) {
+        List<T> ts = new ArrayList<>();
+        try {
+            ts = inTransaction(emf, em -> em.createQuery("select t from " + type.getSimpleName() + " t order by t.id", type)
+                    .setFirstResult(offset)
+                    .setMaxResults(limit)
+                    .getResultList());
+        } catch (IllegalStateException e) {
+            log.warn("No Ts could be retrieved from offset " + offset + ".");
+            e.printStackTrace();
+        }
+        return ts;
+    }
 
-            em.getTransaction().commit();
-            em.close();
+    @Override
+    public List<T> readAfter(long lastId, int limit) {
+        List<T> ts = new ArrayList<>();
+        try {
+            ts = inTransaction(emf, em -> em.createQuery("select t from " + type.getSimpleName() + " t where t.id > :lastId order by t.id", type)
+                    .setParameter("lastId", lastId)
+                    .setMaxResults(limit)
+                    .getResultList());
         } catch (IllegalStateException e) {
-            log.warn("No Ts could be retrieved.");
+            log.warn("No Ts could be retrieved after id " + lastId + ".");
             e.printStackTrace();
         }
         return ts;
     }
 
     @Override
-    public void update(T t) {
+    public long count() {
+        try {
+            return inTransaction(emf, em -> em.createQuery("select count(t) from " + type.getSimpleName() + " t", Long.class)
+                    .getSingleResult());
+        } catch (IllegalStateException e) {
+            log.warn("Ts could not be counted.");
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    // The EntityManager stays open until the stream is closed. Rows are read STREAM_FETCH_SIZE at a time with keyset
+    // pagination like readAfter, and the persistence context is cleared only before the next chunk is read, once all
+    // entities of the previous chunk went through the stream, so memory does not grow with the table.
+    @Override
+    public Stream<T> streamAll() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
         try {
-            em = emf.createEntityManager();
-            em.getTransaction().begin();
+            transaction.begin();
+            Iterator<T> chunks = new Iterator<>() {
+                private Iterator<T> chunk = Collections.emptyIterator();
+                private long lastId = 0; // Ids start at 1
+                private boolean lastChunk;
+
+                @Override
+                public boolean hasNext() {
+                    if (!chunk.hasNext() && !lastChunk) {
+                        em.clear();
+                        List<T> ts = em.createQuery("select t from " + type.getSimpleName() + " t where t.id > :lastId order by t.id", type)
+                                .setParameter("lastId", lastId)
+                                .setMaxResults(DBConfig.STREAM_FETCH_SIZE)
+                                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                                .getResultList();
+                        lastChunk = ts.size() < DBConfig.STREAM_FETCH_SIZE;
+                        if (!ts.isEmpty())
+                            lastId = (Long) emf.getPersistenceUnitUtil().getIdentifier(ts.get(ts.size() - 1));
+                        chunk = ts.iterator();
+                    }
+                    return chunk.hasNext();
+                }
 
-            em.merge(t);
+                @Override
+                public T next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    return chunk.next();
+                }
+            };
 
-            em.getTransaction().commit();
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> {
+                        if (transaction.isActive())
+                            transaction.rollback(); // Nothing was written
+                        em.close();
+                    });
+        } catch (RuntimeException e) {
+            if (transaction.isActive())
+                transaction.rollback();
             em.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void update(T t) {
+        try {
+            runInTransaction(emf, em -> em.merge(t));
         } catch (IllegalStateException e) {
             log.error("Error while updating t: " + e.getMessage());
             e.printStackTrace();
@@ -95,17 +215,71 @@ public class RepositoryImplementation<T> implements CRUDRepository<T> {
     @Override
     public void delete(T t) {
         try {
-            em = emf.createEntityManager();
-            em.getTransaction().begin();
+            runInTransaction(emf, em -> {
+                T tToDelete = em.merge(t);
+                em.remove(tToDelete);
+            });
+        } catch (IllegalStateException e) {
+            log.error("Error while deleting T: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void createAll(Collection<? extends T> ts) {
+        if (ts.isEmpty())
+            return;
+
+        try {
+            runInTransaction(emf, em -> {
+                int count = 0;
+                for (T t : ts) {
+                    em.persist(t);
+                    flushAndClearOnBatchEnd(em, ++count);
+                }
+            });
+        } catch (IllegalStateException e) {
+            log.error("Error while creating " + ts.size() + " Ts: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<? extends T> ts) {
+        if (ts.isEmpty())
+            return;
+
+        try {
+            runInTransaction(emf, em -> {
+                int count = 0;
+                for (T t : ts) {
+                    em.merge(t);
+                    flushAndClearOnBatchEnd(em, ++count);
+                }
+            });
+        } catch (IllegalStateException e) {
+            log.error("Error while updating " + ts.size() + " Ts: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
 
-            T tToDelete = em.merge(t);
-            em.remove(tToDelete);
+    @Override
+    public void deleteAll(Collection<? extends T> ts) {
+        if (ts.isEmpty())
+            return;
 
-            em.getTransaction().commit();
-            em.close();
+        try {
+            runInTransaction(emf, em -> {
+                int count = 0;
+                for (T t : ts) {
+                    T tToDelete = em.merge(t);
+                    em.remove(tToDelete);
+                    flushAndClearOnBatchEnd(em, ++count);
+                }
+            });
         } catch (IllegalStateException e) {
-            log.error("Error while deleting T: " + e.getMessage());
+            log.error("Error while deleting " + ts.size() + " Ts: " + e.getMessage());
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,186 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+// Versioned schema migrations, instead of hbm2ddl.auto=update inspecting the whole schema on every start
+// Scripts are read from db/migration/<database>/ in the order of the file migrations there, named like V1__create_tables.sql.
+// Applied versions are recorded with a checksum in schema_version. Each pending script runs in a transaction of its own,
+// so a failing script leaves the database at the version before; scripts of applied versions must not be changed.
+
+@Slf4j
+public class SchemaMigration {
+    public static final String HISTORY_TABLE = "schema_version";
+    private static final String LOCATION = "/db/migration/";
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    public record Migration(int version, String description, String sql) {
+        int checksum() {
+            CRC32 crc = new CRC32();
+            crc.update(sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            return (int) crc.getValue();
+        }
+    }
+
+    private final List<Migration> migrations;
+
+    public SchemaMigration(List<Migration> migrations) {
+        this.migrations = migrations.stream()
+                .sorted(Comparator.comparingInt(Migration::version))
+                .toList();
+    }
+
+    // Migrates the database of the EntityManagerFactory with the scripts for it, returns the number of applied scripts
+    public static int migrate(EntityManagerFactory emf) {
+        try (Session session = emf.unwrap(SessionFactory.class).openSession()) {
+            return session.doReturningWork(connection -> forDatabase(connection).migrate(connection));
+        }
+    }
+
+    // Scripts of db/migration/<database product name in lower case>/, e.g. postgresql
+    public static SchemaMigration forDatabase(Connection connection) throws SQLException {
+        String database = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        List<String> scripts = readLines(LOCATION + database + "/migrations").stream()
+                .map(String::strip)
+                .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                .toList();
+        if (scripts.isEmpty())
+            log.warn("No schema migrations for " + database + ".");
+
+        List<Migration> migrations = new ArrayList<>();
+        for (String script : scripts) {
+            Matcher name = SCRIPT_NAME.matcher(script);
+            if (!name.matches())
+                throw new IllegalStateException("Not a migration script: " + script);
+            String sql = String.join("\n", readLines(LOCATION + database + "/" + script));
+            migrations.add(new Migration(Integer.parseInt(name.group(1)), name.group(2).replace('_', ' '), sql));
+        }
+        return new SchemaMigration(migrations);
+    }
+
+    public int migrate(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            createHistoryTable(connection);
+            Map<Integer, Integer> applied = appliedChecksums(connection);
+
+            int count = 0;
+            for (Migration migration : migrations) {
+                Integer checksum = applied.get(migration.version());
+                if (checksum == null) {
+                    apply(connection, migration);
+                    count++;
+                } else if (checksum != migration.checksum())
+                    throw new IllegalStateException("Migration V" + migration.version() + " was changed after it was applied.");
+            }
+
+            log.info("Schema at version " + currentVersion(connection) + ", " + count + " migrations applied.");
+            return count;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements(migration.sql()))
+                statement.execute(sql);
+
+            int millis = (int) ((System.nanoTime() - start) / 1_000_000);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + HISTORY_TABLE
+                    + " (version, description, checksum, installed_on, execution_time) VALUES (?, ?, ?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setInt(3, migration.checksum());
+                insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+                insert.setInt(5, millis);
+                insert.executeUpdate();
+            }
+            connection.commit();
+            log.info("Migrated schema to V" + migration.version() + " (" + migration.description() + ") in " + millis + " ms.");
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            log.error("Migration V" + migration.version() + " failed: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " (version integer NOT NULL PRIMARY KEY, "
+                    + "description varchar(200) NOT NULL, checksum integer NOT NULL, installed_on timestamp NOT NULL, "
+                    + "execution_time integer NOT NULL)");
+        }
+        connection.commit();
+    }
+
+    private static Map<Integer, Integer> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Integer> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE)) {
+            while (resultSet.next())
+                applied.put(resultSet.getInt(1), resultSet.getInt(2));
+        }
+        connection.commit();
+        return applied;
+    }
+
+    public static int currentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT coalesce(max(version), 0) FROM " + HISTORY_TABLE)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    // Splits a script at semicolons that end a line, except within dollar-quoted function bodies; skips comment lines
+    static List<String> statements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder statement = new StringBuilder();
+        boolean dollarQuoted = false;
+        for (String line : sql.split("\\R")) {
+            String trimmed = line.strip();
+            if (!dollarQuoted && (trimmed.isEmpty() || trimmed.startsWith("--")))
+                continue;
+
+            statement.append(line).append('\n');
+            if (line.split("\\$\\$", -1).length % 2 == 0) // Odd number of $$
+                dollarQuoted = !dollarQuoted;
+            if (!dollarQuoted && trimmed.endsWith(";")) {
+                statements.add(statement.substring(0, statement.lastIndexOf(";")).strip());
+                statement.setLength(0);
+            }
+        }
+        if (!statement.isEmpty())
+            statements.add(statement.toString().strip());
+        return statements;
+    }
+
+    private static List<String> readLines(String resource) {
+        InputStream in = SchemaMigration.class.getResourceAsStream(resource);
+        if (in == null)
+            return List.of();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.nico.quoted.repository;
+
+import org.nico.quoted.domain.Author;
+import org.nico.quoted.domain.Quote;
+import org.nico.quoted.domain.Source;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Reads everything the ClientModel shows at once, so that quotes, sources and authors share their instances
+
+public interface SnapshotRepository {
+    record Snapshot(List<Author> authors, List<Source> sources, List<Quote> quotes) { }
+
+    Snapshot readSnapshot();
+
+    // Reads the same, but hands over the authors and sources first and then the quotes in chunks of chunkSize as they
+    // arrive; chunks after the first contain only quotes, which share their sources with the first one
+    void readSnapshot(int chunkSize, Consumer<Snapshot> onChunk);
+}
@@ -0,0 +1,105 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.AvailableHints;
+import org.nico.quoted.domain.Author;
+import org.nico.quoted.domain.Quote;
+import org.nico.quoted.domain.Source;
+import org.nico.quoted.util.StartupTimer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Reads all data with three queries in one EntityManager: Its persistence context resolves the author of every book
+// and the source of every quote to the instance read before, instead of selecting each one again
+
+@Slf4j
+public class SnapshotRepositoryImplementation implements SnapshotRepository {
+    private final EntityManagerFactory emf;
+
+    public SnapshotRepositoryImplementation(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @Override
+    public Snapshot readSnapshot() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+
+            List<Author> authors = readAuthors(em);
+            List<Source> sources = readSources(em);
+            List<Quote> quotes = em.createQuery("select q from Quote q join fetch q.source order by q.id", Quote.class)
+                    .getResultList();
+
+            transaction.commit();
+            log.info("Read snapshot of " + authors.size() + " authors, " + sources.size() + " sources and " + quotes.size() + " quotes.");
+            return new Snapshot(authors, sources, quotes);
+        } catch (RuntimeException e) {
+            if (transaction.isActive())
+                transaction.rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Quotes are read in chunks by their id (keyset pagination), each chunk with the sources of the persistence context
+    @Override
+    public void readSnapshot(int chunkSize, Consumer<Snapshot> onChunk) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+
+            List<Author> authors = StartupTimer.time("Read authors", () -> readAuthors(em));
+            List<Source> sources = StartupTimer.time("Read sources", () -> readSources(em));
+            onChunk.accept(new Snapshot(authors, sources, List.of()));
+
+            int numberOfQuotes = 0;
+            long lastId = 0; // Ids start at 1
+            List<Quote> chunk;
+            do {
+                long start = System.nanoTime();
+                chunk = em.createQuery("select q from Quote q join fetch q.source where q.id > :lastId order by q.id", Quote.class)
+                        .setParameter("lastId", lastId)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+                StartupTimer.record("Read quotes", Duration.ofNanos(System.nanoTime() - start));
+
+                if (!chunk.isEmpty()) {
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                    numberOfQuotes += chunk.size();
+                    onChunk.accept(new Snapshot(List.of(), List.of(), chunk));
+                }
+            } while (chunk.size() == chunkSize);
+
+            transaction.commit();
+            log.info("Read snapshot of " + authors.size() + " authors, " + sources.size() + " sources and " + numberOfQuotes + " quotes in chunks of " + chunkSize + ".");
+        } catch (RuntimeException e) {
+            if (transaction.isActive())
+                transaction.rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    // Authors and sources rarely change, so their results are taken from the query cache where possible
+    private static List<Author> readAuthors(EntityManager em) {
+        return em.createQuery("select a from Author a order by a.id", Author.class)
+                .setHint(AvailableHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+
+    private static List<Source> readSources(EntityManager em) { // Books and articles
+        return em.createQuery("select s from Source s order by s.id", Source.class)
+                .setHint(AvailableHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+}
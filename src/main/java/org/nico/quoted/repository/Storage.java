@@ -0,0 +1,19 @@
+package org.nico.quoted.repository;
+
+import org.nico.quoted.domain.Identifiable;
+
+// The repositories of one storage engine, which share its data, e.g. an EntityManagerFactory or maps in memory
+
+public interface Storage {
+
+    // For Author, Book, Article and Quote
+    <T extends Identifiable> CRUDRepository<T> repository(Class<T> type);
+
+    SnapshotRepository snapshotRepository();
+
+    QuoteSearchRepository quoteSearchRepository();
+
+    RandomQuoteRepository randomQuoteRepository();
+
+    UnitOfWorkRepository unitOfWorkRepository();
+}
@@ -0,0 +1,29 @@
+package org.nico.quoted.repository;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+
+// Service provider interface for storage engines, found with ServiceLoader: declared with provides in module-info.java,
+// or in META-INF/services/org.nico.quoted.repository.StorageProvider on the class path. Selected by name with
+// -Dquoted.storage=<name>, see DBConfig.STORAGE; the engines of Quoted are "jpa" (default) and "memory".
+
+public interface StorageProvider {
+
+    String name();
+
+    // Starts a slow initialisation in the background, e.g. connecting to the database, so that open does not block long
+    default CompletableFuture<Void> boot() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // Waits for the boot; each call returns a storage of its own unless the engine shares its data, like the database
+    Storage open();
+
+    static StorageProvider find(String name) {
+        return ServiceLoader.load(StorageProvider.class).stream()
+                .map(ServiceLoader.Provider::get)
+                .filter(provider -> provider.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No storage provider named " + name + "."));
+    }
+}
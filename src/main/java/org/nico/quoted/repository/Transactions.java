@@ -0,0 +1,50 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.nico.quoted.config.DBConfig;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Transactions of the repository implementations, each with an EntityManager of its own
+
+final class Transactions {
+
+    private Transactions() {
+    }
+
+    // Runs the work in a transaction of a new EntityManager; rolls back on any exception and always closes the EntityManager
+    static <R> R inTransaction(EntityManagerFactory emf, Function<EntityManager, R> work) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction transaction = em.getTransaction();
+        try {
+            transaction.begin();
+            R result = work.apply(em);
+            transaction.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (transaction.isActive())
+                transaction.rollback();
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    static void runInTransaction(EntityManagerFactory emf, Consumer<EntityManager> work) {
+        inTransaction(emf, em -> {
+            work.accept(em);
+            return null;
+        });
+    }
+
+    // Sends the pending statements as one JDBC batch and detaches them, so the persistence context does not grow with the batch
+    static void flushAndClearOnBatchEnd(EntityManager em, int count) {
+        if (count % DBConfig.BATCH_SIZE == 0) {
+            em.flush();
+            em.clear();
+        }
+    }
+}
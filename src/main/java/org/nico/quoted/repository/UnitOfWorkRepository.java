@@ -0,0 +1,12 @@
+package org.nico.quoted.repository;
+
+import java.util.List;
+
+// Writes changes to entities of several types together, e.g. the pending changes of the WriteBehindQueue
+
+public interface UnitOfWorkRepository {
+
+    // Creates, updates and deletes in a single transaction, which is rolled back as a whole if any write fails
+    // Created entities are written in the given order, so referenced entities come first; deleted ones likewise, so they come last
+    void write(List<?> created, List<?> updated, List<?> deleted);
+}
@@ -0,0 +1,40 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.List;
+
+import static org.nico.quoted.repository.Transactions.flushAndClearOnBatchEnd;
+import static org.nico.quoted.repository.Transactions.runInTransaction;
+
+// Unlike the bulk operations of RepositoryImplementation, failures are not logged but thrown, so that the caller can retry
+
+public class UnitOfWorkRepositoryImplementation implements UnitOfWorkRepository {
+    private final EntityManagerFactory emf;
+
+    public UnitOfWorkRepositoryImplementation(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @Override
+    public void write(List<?> created, List<?> updated, List<?> deleted) {
+        if (created.isEmpty() && updated.isEmpty() && deleted.isEmpty())
+            return;
+
+        runInTransaction(emf, em -> {
+            int count = 0;
+            for (Object entity : created) {
+                em.persist(entity);
+                flushAndClearOnBatchEnd(em, ++count);
+            }
+            for (Object entity : updated) {
+                em.merge(entity);
+                flushAndClearOnBatchEnd(em, ++count);
+            }
+            for (Object entity : deleted) {
+                em.remove(em.merge(entity));
+                flushAndClearOnBatchEnd(em, ++count);
+            }
+        });
+    }
+}
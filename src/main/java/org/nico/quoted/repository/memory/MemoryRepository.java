@@ -0,0 +1,101 @@
+package org.nico.quoted.repository.memory;
+
+import org.nico.quoted.domain.Identifiable;
+import org.nico.quoted.repository.CRUDRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Thread-safe: entities are kept by id in a concurrent map, which iterates in the order of the ids like the pages of
+// the database. The instances themselves are stored, not copies, and neither constraints nor transactions are checked.
+
+public class MemoryRepository<T extends Identifiable> implements CRUDRepository<T> {
+    private final ConcurrentNavigableMap<Long, T> entities = new ConcurrentSkipListMap<>();
+    private final AtomicLong ids; // Shared by the repositories of books and articles, like source_seq
+
+    public MemoryRepository(AtomicLong ids) {
+        this.ids = ids;
+    }
+
+    @Override
+    public void create(T t) {
+        if (t.getId() == 0)
+            t.setId(ids.incrementAndGet());
+        entities.put(t.getId(), t);
+    }
+
+    @Override
+    public Optional<T> readById(long id) {
+        return Optional.ofNullable(entities.get(id));
+    }
+
+    @Override
+    public List<T> readAll() {
+        return new ArrayList<>(entities.values());
+    }
+
+    // Associations are always at hand, so entity graphs make no difference
+    @Override
+    public Optional<T> readById(long id, String entityGraph) {
+        return readById(id);
+    }
+
+    @Override
+    public List<T> readAll(String entityGraph) {
+        return readAll();
+    }
+
+    @Override
+    public List<T> readPage(int offset, int limit) {
+        return new ArrayList<>(entities.values().stream().skip(offset).limit(limit).toList());
+    }
+
+    @Override
+    public List<T> readAfter(long lastId, int limit) {
+        return new ArrayList<>(entities.tailMap(lastId, false).values().stream().limit(limit).toList());
+    }
+
+    @Override
+    public long count() {
+        return entities.size();
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        return entities.values().stream();
+    }
+
+    @Override
+    public void update(T t) {
+        if (t.getId() == 0)
+            create(t);
+        else
+            entities.put(t.getId(), t);
+    }
+
+    @Override
+    public void delete(T t) {
+        entities.remove(t.getId());
+    }
+
+    @Override
+    public void createAll(Collection<? extends T> ts) {
+        ts.forEach(this::create);
+    }
+
+    @Override
+    public void updateAll(Collection<? extends T> ts) {
+        ts.forEach(this::update);
+    }
+
+    @Override
+    public void deleteAll(Collection<? extends T> ts) {
+        ts.forEach(this::delete);
+    }
+}
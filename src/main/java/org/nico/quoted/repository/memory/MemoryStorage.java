@@ -0,0 +1,130 @@
+package org.nico.quoted.repository.memory;
+
+import org.nico.quoted.domain.*;
+import org.nico.quoted.repository.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Storage in memory, for benchmarks, UI tests and demos; the data is gone when the storage is garbage collected.
+// Searches match the like queries of QuoteSearchRepositoryImplementation: the origin of a source is the url of an
+// article or the names of the author of a book. Random quotes are drawn uniformly.
+
+public class MemoryStorage implements Storage, SnapshotRepository, QuoteSearchRepository, RandomQuoteRepository,
+        UnitOfWorkRepository {
+    private final MemoryRepository<Author> authors = new MemoryRepository<>(new AtomicLong());
+    private final AtomicLong sourceIds = new AtomicLong(); // Books and articles share their ids
+    private final MemoryRepository<Book> books = new MemoryRepository<>(sourceIds);
+    private final MemoryRepository<Article> articles = new MemoryRepository<>(sourceIds);
+    private final MemoryRepository<Quote> quotes = new MemoryRepository<>(new AtomicLong());
+    private final Map<Class<?>, MemoryRepository<?>> repositories = Map.of(
+            Author.class, authors, Book.class, books, Article.class, articles, Quote.class, quotes);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Identifiable> CRUDRepository<T> repository(Class<T> type) {
+        MemoryRepository<?> repository = repositories.get(type);
+        if (repository == null)
+            throw new IllegalArgumentException("No repository for " + type.getSimpleName() + ".");
+        return (CRUDRepository<T>) repository;
+    }
+
+    @Override
+    public SnapshotRepository snapshotRepository() {
+        return this;
+    }
+
+    @Override
+    public QuoteSearchRepository quoteSearchRepository() {
+        return this;
+    }
+
+    @Override
+    public RandomQuoteRepository randomQuoteRepository() {
+        return this;
+    }
+
+    @Override
+    public UnitOfWorkRepository unitOfWorkRepository() {
+        return this;
+    }
+
+    // ############################## Snapshot ###########################
+
+    @Override
+    public Snapshot readSnapshot() {
+        return new Snapshot(authors.readAll(), sources(), quotes.readAll());
+    }
+
+    @Override
+    public void readSnapshot(int chunkSize, Consumer<Snapshot> onChunk) {
+        onChunk.accept(new Snapshot(authors.readAll(), sources(), List.of()));
+        List<Quote> all = quotes.readAll();
+        for (int i = 0; i < all.size(); i += chunkSize)
+            onChunk.accept(new Snapshot(List.of(), List.of(), all.subList(i, Math.min(i + chunkSize, all.size()))));
+    }
+
+    private List<Source> sources() {
+        List<Source> sources = new ArrayList<>(books.readAll());
+        sources.addAll(articles.readAll());
+        sources.sort(Comparator.comparingLong(Source::getId));
+        return sources;
+    }
+
+    // ############################## Search ###########################
+
+    @Override
+    public List<Quote> search(String searchString, int offset, int limit) {
+        return new ArrayList<>(quotes.streamAll().filter(matching(searchString)).skip(offset).limit(limit).toList());
+    }
+
+    @Override
+    public long count(String searchString) {
+        return quotes.streamAll().filter(matching(searchString)).count();
+    }
+
+    // Every word must be contained in the text of the quote, or in the title or origin of its source, as in the database
+    private static Predicate<Quote> matching(String searchString) {
+        List<String> words = Arrays.stream(searchString.trim().toLowerCase(Locale.ROOT).split("\\s+")).toList();
+        return quote -> words.stream().allMatch(word -> contains(quote.getText(), word)
+                || quote.getSource() != null && (contains(quote.getSource().getTitle(), word)
+                        || contains(quote.getSource().getOrigin(), word)));
+    }
+
+    private static boolean contains(String s, String word) {
+        return s != null && s.toLowerCase(Locale.ROOT).contains(word);
+    }
+
+    // ############################## Random ###########################
+
+    @Override
+    public List<Quote> readRandom(int count) {
+        List<Quote> all = quotes.readAll();
+        Random random = ThreadLocalRandom.current();
+        int drawn = Math.min(count, all.size());
+        for (int i = 0; i < drawn; i++) // Partial Fisher-Yates shuffle
+            Collections.swap(all, i, i + random.nextInt(all.size() - i));
+        return new ArrayList<>(all.subList(0, drawn));
+    }
+
+    // ############################## Unit of work ###########################
+
+    // Not atomic, like the repositories
+    @Override
+    public void write(List<?> created, List<?> updated, List<?> deleted) {
+        created.forEach(entity -> repositoryOf(entity).create((Identifiable) entity));
+        updated.forEach(entity -> repositoryOf(entity).update((Identifiable) entity));
+        deleted.forEach(entity -> repositoryOf(entity).delete((Identifiable) entity));
+    }
+
+    @SuppressWarnings("unchecked")
+    private MemoryRepository<Identifiable> repositoryOf(Object entity) {
+        MemoryRepository<?> repository = repositories.get(entity.getClass());
+        if (repository == null)
+            throw new IllegalArgumentException("No repository for " + entity.getClass().getSimpleName() + ".");
+        return (MemoryRepository<Identifiable>) repository;
+    }
+}
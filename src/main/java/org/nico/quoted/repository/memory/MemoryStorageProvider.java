@@ -0,0 +1,20 @@
+package org.nico.quoted.repository.memory;
+
+import org.nico.quoted.repository.Storage;
+import org.nico.quoted.repository.StorageProvider;
+
+// -Dquoted.storage=memory
+
+public class MemoryStorageProvider implements StorageProvider {
+    public static final String NAME = "memory";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public Storage open() {
+        return new MemoryStorage();
+    }
+}
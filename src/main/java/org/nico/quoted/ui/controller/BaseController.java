@@ -1,8 +1,36 @@
 package org.nico.quoted.ui.controller;
 
 import org.nico.quoted.model.ClientModel;
+import org.nico.quoted.model.DebouncedSearch;
 import org.nico.quoted.model.RepositoryModel;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 public abstract class BaseController {
-    protected static final ClientModel model = new ClientModel(new RepositoryModel());
+    protected static final ClientModel model = new ClientModel(new RepositoryModel(), false); // Filled by loadModel
+    private static final List<DebouncedSearch<?>> searches = new ArrayList<>(); // Of the views, closed on exit
+
+    // Called once the main view is shown, quotes appear in the views as they are read
+    public static CompletableFuture<Void> loadModel() {
+        return model.load();
+    }
+
+    // For the search fields of the views, so that their threads are stopped by closeViews
+    protected static <R> DebouncedSearch<R> closedOnExit(DebouncedSearch<R> search) {
+        searches.add(search);
+        return search;
+    }
+
+    // Called on exit, before closeModel
+    public static void closeViews() {
+        searches.forEach(DebouncedSearch::close);
+        searches.clear();
+    }
+
+    // Called on exit, so that changes still pending in the model are written
+    public static void closeModel() {
+        model.close();
+    }
 }
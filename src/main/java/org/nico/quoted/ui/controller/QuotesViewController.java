@@ -1,14 +1,26 @@
 package org.nico.quoted.ui.controller;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.util.Duration;
 import lombok.extern.slf4j.Slf4j;
+import org.nico.quoted.config.DBConfig;
+import org.nico.quoted.config.UIConfig;
 import org.nico.quoted.domain.Quote;
 import org.nico.quoted.domain.Source;
+import org.nico.quoted.model.DebouncedSearch;
+import org.nico.quoted.model.PagedList;
 import org.nico.quoted.ui.controller.form.QuoteFormView;
 
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
 @Slf4j
 public class QuotesViewController extends MainController {
 
@@ -34,11 +46,23 @@ public class QuotesViewController extends MainController {
     @FXML
     private Button resetButton;
 
+    // Filters for both tables; null shows everything, the order of the quotes is null unless they are ranked
+    // When browsing page by page, quotes are searched in the database with the search string instead
+    private record SearchResult(String searchString, Predicate<Quote> quotes, Comparator<Quote> quoteOrder, Predicate<Source> sources) {
+        static final SearchResult ALL = new SearchResult(null, null, null, null);
+    }
+
+    private TableFilter<Quote> quoteFilter;
+    private TableFilter<Source> sourceFilter;
+    private SearchResult searchResult = SearchResult.ALL; // Shown unless a source is selected
+    private PagedList<Quote> pagedQuotes; // Shown instead of the filtered quotes when browsing page by page
+    private DebouncedSearch<SearchResult> search;
+
     @FXML
     void initialize() {
         checkAssertions();
-        fillSourceTable(model.getSources());
-        fillQuoteTable(model.getQuotes());
+        setUpSourceTable();
+        setUpQuoteTable();
         bindSourceSelection();
         bindQuoteSelection();
         bindSearch();
@@ -54,24 +78,68 @@ public class QuotesViewController extends MainController {
         model.bindToSelectedQuote(quoteTableView.getSelectionModel().selectedItemProperty());
     }
 
+    // Searches run in the background once typing paused, a blank search string shows everything at once
     private void bindSearch() {
+        search = closedOnExit(new DebouncedSearch<>(this::search, this::showSearchResult, UIConfig.SEARCH_DELAY));
         resetView();
         searchTextField.textProperty().addListener((observable, oldValue, newValue) -> {
-            fillQuoteTable(model.searchQuotes(newValue));
-            fillSourceTable(model.searchSources(newValue));
+            if (newValue == null || newValue.isBlank()) {
+                search.cancel();
+                showSearchResult(SearchResult.ALL);
+            } else
+                search.submit(newValue);
         });
     }
 
+    // Searches the database instead of the quotes in memory if enabled in DBConfig
+    private SearchResult search(String searchString) {
+        if (DBConfig.PAGED_BROWSING)
+            return new SearchResult(searchString, null, null, model.sourceSearchFilter(searchString));
+        if (DBConfig.DATABASE_SEARCH)
+            return searchInDatabase(searchString);
+        return new SearchResult(searchString, model.quoteSearchFilter(searchString), null, model.sourceSearchFilter(searchString));
+    }
+
+    // Quotes found in the database are shown best matches first
+    private SearchResult searchInDatabase(String searchString) {
+        List<Quote> found = model.searchQuotesInDatabase(searchString);
+        Map<Quote, Integer> ranks = new IdentityHashMap<>();
+        for (int i = 0; i < found.size(); i++)
+            ranks.putIfAbsent(found.get(i), i);
+
+        return new SearchResult(searchString, ranks::containsKey, Comparator.comparingInt(ranks::get), model.sourceSearchFilter(searchString));
+    }
+
+    private void showSearchResult(SearchResult result) {
+        searchResult = result;
+        showQuotesOfSearchResult();
+        sourceFilter.filter(result.sources());
+    }
+
+    private void showQuotesOfSearchResult() {
+        if (DBConfig.PAGED_BROWSING) {
+            pagedQuotes = model.pagedQuotes(searchResult.searchString());
+            quoteTableView.setItems(pagedQuotes);
+        } else
+            quoteFilter.filter(searchResult.quotes(), searchResult.quoteOrder());
+    }
+
     private void watchForChanges() {
         model.addListenerToSelectedSource((observable, oldValue, newValue) -> {
             if (newValue == null)
-                fillQuoteTable(model.getQuotes());
+                showQuotesOfSearchResult();
         });
 
-        model.addListenerToSelectedQuote((observable, oldValue, newValue) -> {
-            if (newValue == null)
-                fillSourceTable(model.getSources());
-        });
+        // Pages do not follow the quote list by themselves; they are counted and loaded again once changes were written,
+        // at most once per search delay while writes follow each other
+        if (DBConfig.PAGED_BROWSING) {
+            PauseTransition refresh = new PauseTransition(Duration.millis(UIConfig.SEARCH_DELAY));
+            refresh.setOnFinished(event -> {
+                if (pagedQuotes != null && quoteTableView.getItems() == pagedQuotes)
+                    pagedQuotes.refresh();
+            });
+            model.addWriteListener(() -> Platform.runLater(refresh::playFromStart));
+        }
     }
 
 
@@ -85,7 +153,7 @@ public class QuotesViewController extends MainController {
     }
 
     private void updateFilteredQuoteTable(Source newSource) {
-        fillQuoteTable(model.getQuotesBySource(newSource));
+        quoteFilter.filter(model.quoteSourceFilter(newSource));
     }
 
     private void refreshOnTabChanged() {
@@ -100,13 +168,15 @@ public class QuotesViewController extends MainController {
         sourceTableView.getSelectionModel().clearSelection();
         quoteTableView.getSelectionModel().clearSelection();
         searchTextField.setText("Search ...");
-        fillQuoteTable(model.getQuotes());
-        fillSourceTable(model.getSources());
+        search.cancel(); // Not a search string
+        showSearchResult(SearchResult.ALL);
     }
 
-    private void fillQuoteTable(ObservableList<Quote> currentQuotes) {
-        quoteTableView.setItems(currentQuotes);
-        quoteColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getText()));
+    // Tables are bound once to filtered views over the lists of the model, searches only change the filters
+    private void setUpQuoteTable() {
+        quoteFilter = new TableFilter<>(model.getQuotes(), quoteTableView);
+        quoteColumn.setCellValueFactory(cellData -> new SimpleStringProperty(
+                cellData.getValue() != null ? cellData.getValue().getText() : "Loading ...")); // Pages are loaded in the background
         fillEditQuoteColumn();
         fillDeleteQuoteColumn();
     }
@@ -124,12 +194,8 @@ public class QuotesViewController extends MainController {
                 } else {
                     deleteButton.setOnAction(event -> {
                         Quote quote = getTableView().getItems().get(getIndex());
-                        model.deleteQuote(quote);
-                        Source selectedSource = sourceTableView.getSelectionModel().getSelectedItem();
-                        if (selectedSource != null)
-                            updateFilteredQuoteTable(selectedSource);
-                        else
-                            fillQuoteTable(model.getQuotes());
+                        if (quote != null) // Not loaded yet when browsing page by page
+                            model.deleteQuote(quote); // Disappears from the filtered view
                     });
                     // deleteButton.setOnAction(event -> model.deleteQuoteByIndex(getIndex()));
                     setText(null);
@@ -154,6 +220,8 @@ public class QuotesViewController extends MainController {
                     editButton.setOnAction(event -> {
                         // Index does not work here, because of filtering
                         Quote quote = getTableView().getItems().get(getIndex());
+                        if (quote == null)
+                            return;
                         model.setQuoteToEdit(quote);
                         openEditView();
                     });
@@ -168,8 +236,8 @@ public class QuotesViewController extends MainController {
         new QuoteFormView().show();
     }
 
-    private void fillSourceTable(ObservableList<Source> currentSources) {
-        sourceTableView.setItems(currentSources);
+    private void setUpSourceTable() {
+        sourceFilter = new TableFilter<>(model.getSources(), sourceTableView);
         sourceColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().toString()));
     }
 
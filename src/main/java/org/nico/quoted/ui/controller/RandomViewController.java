@@ -4,8 +4,10 @@ import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
+import lombok.extern.slf4j.Slf4j;
 import org.nico.quoted.domain.Quote;
 
+@Slf4j
 public class RandomViewController extends MainController {
 
     @FXML
@@ -24,8 +26,17 @@ public class RandomViewController extends MainController {
         setUpQuoteText();
     }
 
+    // The quote may be drawn in the database, see ClientModel.nextRandomQuote
     private void setNextRandomQuote() {
-        Quote quote = model.getRandomQuote();
+        model.nextRandomQuote()
+                .thenAccept(this::showQuote)
+                .exceptionally(exception -> {
+                    log.error("No random quote could be shown: " + exception.getMessage());
+                    return null;
+                });
+    }
+
+    private void showQuote(Quote quote) {
         quoteText.setText(quote.getText());
         setQuoteOrigin(quote);
         // Make label italic
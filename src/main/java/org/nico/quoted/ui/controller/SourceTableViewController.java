@@ -1,15 +1,18 @@
 package org.nico.quoted.ui.controller;
 
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import org.nico.quoted.config.UIConfig;
 import org.nico.quoted.domain.Book;
 import org.nico.quoted.domain.Source;
+import org.nico.quoted.model.DebouncedSearch;
 import org.nico.quoted.ui.controller.form.ArticleFormView;
 import org.nico.quoted.ui.controller.form.BookFormView;
 
+import java.util.function.Predicate;
+
 public class SourceTableViewController extends MainController {
 
     @FXML
@@ -36,10 +39,13 @@ public class SourceTableViewController extends MainController {
     @FXML
     private TableColumn<Source, String> typeColumn;
 
+    private TableFilter<Source> sourceFilter;
+    private DebouncedSearch<Predicate<Source>> search;
+
     @FXML
     void initialize() {
         checkAssertions();
-        fillTableView(model.getSources());
+        setUpTableView();
         bindSelectedSource();
         setUpSearchField();
         bindResetListener();
@@ -49,21 +55,29 @@ public class SourceTableViewController extends MainController {
         model.registerResetListener((observable, oldValue, newValue) -> {
                     sourceTableView.getSelectionModel().clearSelection();
                     searchTextField.setText("Search ...");
-                    fillTableView(model.getSources());
+                    search.cancel(); // Not a search string
+                    sourceFilter.showAll();
                 });
     }
 
     private void setUpSearchField() {
-        searchTextField.textProperty().addListener((observable, oldValue, newValue)
-                -> fillTableView(model.searchSources(newValue)));
+        search = closedOnExit(new DebouncedSearch<>(model::sourceSearchFilter, sourceFilter::filter, UIConfig.SEARCH_DELAY));
+        searchTextField.textProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue == null || newValue.isBlank()) {
+                search.cancel();
+                sourceFilter.showAll();
+            } else
+                search.submit(newValue);
+        });
     }
 
     private void bindSelectedSource() {
         model.bindToSelectedSource(sourceTableView.getSelectionModel().selectedItemProperty());
     }
 
-    private void fillTableView(ObservableList<Source> currentSources) {
-        sourceTableView.setItems(currentSources);
+    // The table is bound once to a filtered view over the sources of the model, searches only change the filter
+    private void setUpTableView() {
+        sourceFilter = new TableFilter<>(model.getSources(), sourceTableView);
         typeColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getClass().getSimpleName()));
         titleColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getTitle()));
         originColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getOrigin()));
@@ -85,7 +99,8 @@ public class SourceTableViewController extends MainController {
                     setText(null);
                     setGraphic(editButton);
                     editButton.setOnAction(event -> {
-                        model.setSourceToEdit(model.getSourceByIndex(getIndex()));
+                        // The index is the one in the filtered and sorted view
+                        model.setSourceToEdit(getTableView().getItems().get(getIndex()));
                         editSource();
                     });
                 }
@@ -119,7 +134,7 @@ public class SourceTableViewController extends MainController {
                     setGraphic(null);
                 } else {
                     // wenn button gedrückt, führe event handler aus
-                    deleteButton.setOnAction(event -> model.deleteSourceByIndex(getIndex()));
+                    deleteButton.setOnAction(event -> model.deleteSource(getTableView().getItems().get(getIndex())));
                     setText(null);
                     setGraphic(deleteButton);
                 }
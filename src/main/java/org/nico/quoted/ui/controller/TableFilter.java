@@ -0,0 +1,51 @@
+package org.nico.quoted.ui.controller;
+
+import javafx.beans.binding.Bindings;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.TableView;
+
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+// Filtered and sorted view over a list of the model, set once as the items of a TableView
+// Filtering only swaps the predicate, so the table keeps its cells and follows changes of the list incrementally.
+// Sorting by a column header takes precedence over the order given with a filter, e.g. the ranking of a database search.
+
+class TableFilter<T> {
+    private final TableView<T> tableView;
+    private final FilteredList<T> filtered;
+    private final SortedList<T> sorted;
+    private final ObjectProperty<Comparator<? super T>> order = new SimpleObjectProperty<>();
+
+    TableFilter(ObservableList<T> list, TableView<T> tableView) {
+        this.tableView = tableView;
+        this.filtered = new FilteredList<>(list);
+        this.sorted = new SortedList<>(filtered);
+        sorted.comparatorProperty().bind(Bindings.<Comparator<? super T>>createObjectBinding(() -> {
+            Comparator<? super T> byColumn = tableView.getComparator();
+            return byColumn != null ? byColumn : order.get();
+        }, tableView.comparatorProperty(), order));
+        tableView.setItems(sorted);
+    }
+
+    // Shows the elements matching the predicate in the order of the list, all elements if it is null
+    void filter(Predicate<? super T> predicate) {
+        filter(predicate, null);
+    }
+
+    // Sets the view as the items of the table again, in case they were replaced, e.g. by a PagedList
+    void filter(Predicate<? super T> predicate, Comparator<? super T> order) {
+        this.order.set(order);
+        filtered.setPredicate(predicate);
+        if (tableView.getItems() != sorted)
+            tableView.setItems(sorted);
+    }
+
+    void showAll() {
+        filter(null);
+    }
+}
@@ -0,0 +1,66 @@
+package org.nico.quoted.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Durations of the phases of the startup, in the order they finished, e.g. the boot of the EntityManagerFactory,
+// each read of the snapshot and the load of the FXML. Logged once the startup is finished and kept for benchmarks;
+// phases that finish after the startup are not recorded.
+
+@Slf4j
+public class StartupTimer {
+    private static long start = System.nanoTime();
+    private static final Map<String, Duration> phases = new LinkedHashMap<>();
+    private static Duration total;
+
+    private StartupTimer() {
+    }
+
+    public static <T> T time(String phase, Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            record(phase, Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    // Durations of repeated phases add up, e.g. of chunks read one after the other
+    public static synchronized void record(String phase, Duration duration) {
+        if (total == null)
+            phases.merge(phase, duration, Duration::plus);
+    }
+
+    // Ends the startup and logs the phases
+    public static synchronized void finish() {
+        if (total != null)
+            return;
+
+        total = Duration.ofNanos(System.nanoTime() - start);
+        StringBuilder message = new StringBuilder("Startup took " + total.toMillis() + " ms:");
+        phases.forEach((phase, duration) -> message.append(" ").append(phase).append(" ").append(duration.toMillis()).append(" ms,"));
+        message.setLength(message.length() - 1);
+        log.info(message.toString());
+    }
+
+    public static synchronized Map<String, Duration> phases() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(phases));
+    }
+
+    // Starts over as if the class was just loaded, for tests
+    static synchronized void reset() {
+        start = System.nanoTime();
+        phases.clear();
+        total = null;
+    }
+
+    // Since the class was loaded, null until the startup is finished
+    public static synchronized Duration total() {
+        return total;
+    }
+}
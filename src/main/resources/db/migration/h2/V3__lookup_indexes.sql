@@ -0,0 +1,6 @@
+-- Foreign key and last_edited indexes as in db/migration/postgresql. H2 has no indexes on expressions, so the lower()
+-- lookup indexes of postgresql are left out; the version is kept, so that versions mean the same on both databases.
+
+CREATE INDEX IF NOT EXISTS quote_source_id_idx ON quote (source_id);
+CREATE INDEX IF NOT EXISTS book_author_id_idx ON book (author_id);
+CREATE INDEX IF NOT EXISTS quote_last_edited_idx ON quote (last_edited);
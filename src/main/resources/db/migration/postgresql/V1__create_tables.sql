@@ -0,0 +1,40 @@
+-- Tables and sequences of the entities, as hbm2ddl.auto=update created them.
+-- IF NOT EXISTS leaves databases created by former versions of Quoted as they are.
+-- INCREMENT BY must equal DBConfig.ID_ALLOCATION_SIZE.
+
+CREATE SEQUENCE IF NOT EXISTS author_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS quote_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS source_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS author (
+    id bigint NOT NULL PRIMARY KEY,
+    firstname varchar(255),
+    lastname varchar(255)
+);
+
+-- Books and articles share the id of their row in source (JOINED inheritance)
+CREATE TABLE IF NOT EXISTS source (
+    source_type varchar(31) NOT NULL,
+    id bigint NOT NULL PRIMARY KEY,
+    title varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS book (
+    coverpath varchar(255),
+    isbn varchar(255),
+    id bigint NOT NULL PRIMARY KEY REFERENCES source,
+    author_id bigint REFERENCES author
+);
+
+CREATE TABLE IF NOT EXISTS article (
+    last_visited timestamp(6),
+    url varchar(255),
+    id bigint NOT NULL PRIMARY KEY REFERENCES source
+);
+
+CREATE TABLE IF NOT EXISTS quote (
+    id bigint NOT NULL PRIMARY KEY,
+    last_edited timestamp(6),
+    text text,
+    source_id bigint REFERENCES source
+);
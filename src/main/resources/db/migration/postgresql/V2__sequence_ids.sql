@@ -0,0 +1,16 @@
+-- Migrates a quote_db created before the switch to batched inserts from IDENTITY (quote, author) and TABLE (source)
+-- id generation to the pooled sequences. Sequences continue after the highest id, so this also holds for new databases.
+-- INCREMENT BY must equal DBConfig.ID_ALLOCATION_SIZE.
+
+CREATE SEQUENCE IF NOT EXISTS quote_seq INCREMENT BY 50;
+SELECT setval('quote_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM quote), false);
+ALTER TABLE quote ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS author_seq INCREMENT BY 50;
+SELECT setval('author_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM author), false);
+ALTER TABLE author ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+-- Books and articles share the id of their row in source (JOINED inheritance)
+CREATE SEQUENCE IF NOT EXISTS source_seq INCREMENT BY 50;
+SELECT setval('source_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM source), false);
+DROP TABLE IF EXISTS hibernate_sequences;
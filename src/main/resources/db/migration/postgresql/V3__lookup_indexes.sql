@@ -0,0 +1,13 @@
+-- Indexes hbm2ddl did not create. Postgresql does not index foreign keys by itself, so loading the quotes of a source
+-- and deleting a source or author scanned the referencing table.
+
+CREATE INDEX IF NOT EXISTS quote_source_id_idx ON quote (source_id);
+CREATE INDEX IF NOT EXISTS book_author_id_idx ON book (author_id);
+
+-- Case-insensitive lookups by natural key, see NaturalKey
+CREATE INDEX IF NOT EXISTS source_title_lower_idx ON source (lower(title));
+CREATE INDEX IF NOT EXISTS article_url_lower_idx ON article (lower(url));
+CREATE INDEX IF NOT EXISTS author_name_lower_idx ON author (lower(lastname), lower(firstname));
+
+-- Recently edited quotes
+CREATE INDEX IF NOT EXISTS quote_last_edited_idx ON quote (last_edited);
@@ -0,0 +1,70 @@
+-- Full-text search over quotes for QuoteSearchRepositoryImplementation.
+-- Adds quote.search_vector with the text of the quote (weight A) and the title and origin of its source (weight B),
+-- kept up to date by triggers, and a GIN index over it. Every statement can be run again, as databases may already
+-- have all of it from the former db/quote_search.sql, which was run by hand.
+-- The 'simple' configuration neither stems nor drops stop words, as quotes are written in several languages.
+
+ALTER TABLE quote ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION quote_search_document(quote_text text, quote_source_id bigint) RETURNS tsvector AS $$
+    SELECT setweight(to_tsvector('simple', coalesce(quote_text, '')), 'A')
+        || setweight(to_tsvector('simple', coalesce(
+            (SELECT concat_ws(' ', s.title, ar.url, au.firstname, au.lastname)
+             FROM source s
+                 LEFT JOIN article ar ON ar.id = s.id
+                 LEFT JOIN book b ON b.id = s.id
+                 LEFT JOIN author au ON au.id = b.author_id
+             WHERE s.id = quote_source_id), '')), 'B');
+$$ LANGUAGE sql STABLE;
+
+-- Quotes
+CREATE OR REPLACE FUNCTION quote_search_vector_trigger() RETURNS trigger AS $$
+BEGIN
+    NEW.search_vector := quote_search_document(NEW.text, NEW.source_id);
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS quote_search_vector_update ON quote;
+CREATE TRIGGER quote_search_vector_update BEFORE INSERT OR UPDATE OF text, source_id ON quote
+    FOR EACH ROW EXECUTE FUNCTION quote_search_vector_trigger();
+
+-- Sources, articles, books and authors: refresh the quotes that contain their title or origin
+CREATE OR REPLACE FUNCTION quote_search_refresh_source(refreshed_source_id bigint) RETURNS void AS $$
+    UPDATE quote SET search_vector = quote_search_document(text, source_id) WHERE source_id = refreshed_source_id;
+$$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION source_search_trigger() RETURNS trigger AS $$
+BEGIN
+    PERFORM quote_search_refresh_source(NEW.id);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION author_search_trigger() RETURNS trigger AS $$
+BEGIN
+    PERFORM quote_search_refresh_source(b.id) FROM book b WHERE b.author_id = NEW.id;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS source_search_update ON source;
+CREATE TRIGGER source_search_update AFTER UPDATE OF title ON source
+    FOR EACH ROW WHEN (OLD.title IS DISTINCT FROM NEW.title) EXECUTE FUNCTION source_search_trigger();
+
+DROP TRIGGER IF EXISTS article_search_update ON article;
+CREATE TRIGGER article_search_update AFTER UPDATE OF url ON article
+    FOR EACH ROW WHEN (OLD.url IS DISTINCT FROM NEW.url) EXECUTE FUNCTION source_search_trigger();
+
+DROP TRIGGER IF EXISTS book_search_update ON book;
+CREATE TRIGGER book_search_update AFTER UPDATE OF author_id ON book
+    FOR EACH ROW WHEN (OLD.author_id IS DISTINCT FROM NEW.author_id) EXECUTE FUNCTION source_search_trigger();
+
+DROP TRIGGER IF EXISTS author_search_update ON author;
+CREATE TRIGGER author_search_update AFTER UPDATE OF firstname, lastname ON author
+    FOR EACH ROW WHEN (OLD.firstname IS DISTINCT FROM NEW.firstname OR OLD.lastname IS DISTINCT FROM NEW.lastname)
+    EXECUTE FUNCTION author_search_trigger();
+
+UPDATE quote SET search_vector = quote_search_document(text, source_id);
+
+CREATE INDEX IF NOT EXISTS quote_search_vector_idx ON quote USING gin (search_vector);
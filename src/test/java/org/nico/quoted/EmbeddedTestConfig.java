@@ -0,0 +1,68 @@
+package org.nico.quoted;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.nico.quoted.config.DBConfig;
+import org.nico.quoted.config.EmbeddedDatabase;
+import org.nico.quoted.domain.*;
+import org.nico.quoted.repository.SchemaMigration;
+
+// In-process H2 database, for tests that must not depend on a running postgresql server
+// Kept apart from TestConfig, whose TEST_EMF connects to postgresql when the class is loaded, if so configured
+
+public class EmbeddedTestConfig {
+    public static final String EMBEDDED_TEST_DB_URL = "jdbc:h2:mem:quote_db_test;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    public static final String MIGRATED_TEST_DB_URL = "jdbc:h2:mem:quote_db_migrated" + EmbeddedDatabase.URL_OPTIONS + ";DB_CLOSE_DELAY=-1";
+
+    public static EntityManagerFactory createEntityManagerFactory() {
+        return configuration().buildSessionFactory();
+    }
+
+    // With second-level and query cache as configured in persistence.xml
+    public static EntityManagerFactory createCachingEntityManagerFactory() {
+        return configuration()
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true")
+                .setProperty(AvailableSettings.USE_QUERY_CACHE, "true")
+                .setProperty(AvailableSettings.CACHE_REGION_FACTORY, "jcache")
+                .setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider")
+                .setProperty("hibernate.javax.cache.uri", "ehcache.xml")
+                .buildSessionFactory();
+    }
+
+    // A database of its own with the schema of db/migration/h2 instead of create-drop, as the embedded mode of the application
+    public static EntityManagerFactory createMigratedEntityManagerFactory() {
+        return migrated(MIGRATED_TEST_DB_URL);
+    }
+
+    // A database file at the path, configured as in the embedded mode of the application
+    public static EntityManagerFactory createFileEntityManagerFactory(String path) {
+        return migrated(EmbeddedDatabase.createEntityManagerFactory(EmbeddedDatabase.url(path), true));
+    }
+
+    private static EntityManagerFactory migrated(String url) {
+        return migrated(EmbeddedDatabase.configuration(url)
+                .setProperty(AvailableSettings.GENERATE_STATISTICS, "true") // To count statements in tests
+                .buildSessionFactory());
+    }
+
+    private static EntityManagerFactory migrated(EntityManagerFactory emf) {
+        SchemaMigration.migrate(emf);
+        return emf;
+    }
+
+    private static Configuration configuration() {
+        return new Configuration()
+                .addAnnotatedClass(Quote.class)
+                .addAnnotatedClass(Author.class)
+                .addAnnotatedClass(Book.class)
+                .addAnnotatedClass(Article.class)
+                .addAnnotatedClass(Source.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_DRIVER, "org.h2.Driver")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, EMBEDDED_TEST_DB_URL)
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.STATEMENT_BATCH_SIZE, String.valueOf(DBConfig.BATCH_SIZE))
+                .setProperty(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+                .setProperty(AvailableSettings.GENERATE_STATISTICS, "true"); // To count statements in tests
+    }
+}
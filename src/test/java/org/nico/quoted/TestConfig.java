@@ -11,7 +11,11 @@ import java.util.List;
 
 public class TestConfig {
     public static final String TEST_DB_NAME = "quote_db_test";
-    public static final EntityManagerFactory TEST_EMF = Persistence.createEntityManagerFactory(TEST_DB_NAME);
+    // In-process H2 database unless -Dquoted.testDatabase=postgresql, see the test task in build.gradle
+    public static final boolean POSTGRESQL = "postgresql".equals(System.getProperty("quoted.testDatabase"));
+    public static final EntityManagerFactory TEST_EMF = POSTGRESQL
+            ? Persistence.createEntityManagerFactory(TEST_DB_NAME)
+            : EmbeddedTestConfig.createMigratedEntityManagerFactory();
 
 
     public static List<Author> defaultAuthors() {
@@ -0,0 +1,188 @@
+package org.nico.quoted.domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Property tests for equals and hashCode of the entities, over randomly cased natural keys
+// The seed is fixed, so that a failure can be reproduced
+
+class EqualityContractTest {
+    private static final int RUNS = 500;
+    private static final List<String> WORDS = List.of(
+            "Tolkien", "Der Herr der Ringe", "https://www.zeit.de/2023/15/russland", "Ärger über Öl",
+            "İstanbul", "ΣΟΦΊΑ σοφίας", "Straße", "J.R.R.", "", "a");
+
+    private Random random;
+
+    @BeforeEach
+    void setUp() {
+        random = new Random(42);
+    }
+
+    @Test
+    @DisplayName("Authors: equal if and only if the names are equal ignoring case, equal authors have equal hash codes")
+    void authorContract() {
+        for (int i = 0; i < RUNS; i++) {
+            String firstName = word(), lastName = word();
+            Author author = new Author(firstName, lastName);
+            Author variant = new Author(randomCase(firstName), randomCase(lastName));
+            Author other = new Author(word(), word());
+
+            assertContract(author, variant, () -> new Author(randomCase(firstName), randomCase(lastName)));
+            assertEquals(firstName.equalsIgnoreCase(other.getFirstName()) && lastName.equalsIgnoreCase(other.getLastName()),
+                    author.equals(other));
+        }
+    }
+
+    @Test
+    @DisplayName("Books: equal if title ignoring case and author are equal, equal books have equal hash codes")
+    void bookContract() {
+        for (int i = 0; i < RUNS; i++) {
+            String title = word();
+            Author author = new Author(word(), word());
+            Book book = new Book(title, author);
+            Book variant = new Book(randomCase(title), new Author(randomCase(author.getFirstName()), randomCase(author.getLastName())));
+
+            assertContract(book, variant, () -> new Book(randomCase(title), author));
+            assertNotEquals(book, new Book(title + " 2", author));
+        }
+    }
+
+    @Test
+    @DisplayName("Articles: equal if the urls are equal ignoring case, equal articles have equal hash codes")
+    void articleContract() {
+        for (int i = 0; i < RUNS; i++) {
+            String url = word();
+            Article article = new Article(word(), url);
+            Article variant = new Article(word(), randomCase(url));
+
+            assertContract(article, variant, () -> new Article(word(), randomCase(url)));
+            assertNotEquals(article, new Article(article.getTitle(), url + "/2"));
+        }
+    }
+
+    @Test
+    @DisplayName("Quotes: equal if the texts and sources are equal, equal quotes have equal hash codes")
+    void quoteContract() {
+        for (int i = 0; i < RUNS; i++) {
+            String text = word(), title = word(), lastName = word();
+            Quote quote = new Quote(text, new Book(title, new Author("J.R.R.", lastName)));
+            Quote variant = new Quote(text, new Book(randomCase(title), new Author("j.r.r.", randomCase(lastName))));
+
+            assertContract(quote, variant, () -> new Quote(text, new Book(randomCase(title), new Author("J.R.R.", randomCase(lastName)))));
+        }
+    }
+
+    @Test
+    @DisplayName("Books and articles are never equal, even with the same title")
+    void sourcesOfDifferentTypes() {
+        Book book = new Book("Tolkien", new Author("J.R.R.", "Tolkien"));
+        Article article = new Article("Tolkien", "Tolkien");
+
+        assertNotEquals(book, article);
+        assertNotEquals(article, book);
+    }
+
+    @Test
+    @DisplayName("Ids do not take part in equality, so transient and persisted entities are equal")
+    void transientAndPersistedEntities() {
+        Author transientAuthor = new Author("J.R.R.", "Tolkien");
+        Author persistedAuthor = new Author("j.r.r.", "TOLKIEN");
+        persistedAuthor.setId(7);
+
+        assertEquals(transientAuthor, persistedAuthor);
+        assertEquals(transientAuthor.hashCode(), persistedAuthor.hashCode());
+    }
+
+    @Test
+    @DisplayName("Cached keys follow values changed through setters")
+    void editedThroughSetters() {
+        Article article = new Article("Test", "https://www.test.com");
+        int hashCode = article.hashCode();
+
+        article.setUrl("https://www.TEST.org");
+
+        assertNotEquals(hashCode, article.hashCode());
+        assertEquals(new Article("Test", "https://www.test.org"), article);
+        assertEquals(new Article("Test", "https://www.test.org").hashCode(), article.hashCode());
+    }
+
+    @Test
+    @DisplayName("Cached keys follow values written directly into the fields, as Hibernate does when loading")
+    void editedThroughFields() throws ReflectiveOperationException {
+        Author author = new Author("J.R.R.", "Tolkien");
+        author.hashCode();
+
+        Field lastName = Author.class.getDeclaredField("lastName");
+        lastName.setAccessible(true);
+        lastName.set(author, "Frisch");
+
+        assertEquals(new Author("j.r.r.", "frisch"), author);
+        assertEquals(new Author("j.r.r.", "frisch").hashCode(), author.hashCode());
+    }
+
+    @Test
+    @DisplayName("Entities are found in hashed collections by an equal entity with another case")
+    void hashedCollections() {
+        Set<Book> books = new HashSet<>();
+        Map<Author, String> authors = new HashMap<>();
+        for (int i = 0; i < RUNS; i++) {
+            Author author = new Author("Author", "Number " + i);
+            books.add(new Book("Book " + i, author));
+            authors.put(author, "Author " + i);
+        }
+
+        for (int i = 0; i < RUNS; i++) {
+            Author author = new Author("AUTHOR", "number " + i);
+            assertTrue(books.contains(new Book("book " + i, author)));
+            assertEquals("Author " + i, authors.get(author));
+        }
+    }
+
+    @Test
+    @DisplayName("Entities with missing natural keys do not fail in equals and hashCode")
+    void missingNaturalKeys() {
+        Article article = new Article();
+        Author author = new Author();
+
+        assertEquals(new Article(), article);
+        assertEquals(new Article().hashCode(), article.hashCode());
+        assertEquals(new Author(), author);
+        assertNotEquals(new Article("Test", "https://www.test.com"), article);
+    }
+
+    // Reflexive, symmetric, transitive and consistent with hashCode, not equal to null or to other types
+    private <T> void assertContract(T t, T variant, Supplier<T> variants) {
+        T third = variants.get();
+
+        assertEquals(t, t);
+        assertEquals(t, variant);
+        assertEquals(variant, t);
+        assertEquals(variant, third);
+        assertEquals(t, third);
+        assertEquals(t.hashCode(), variant.hashCode());
+        assertEquals(t.hashCode(), third.hashCode());
+        assertEquals(t.hashCode(), t.hashCode());
+        assertNotEquals(null, t);
+        assertNotEquals(t, new Object());
+    }
+
+    private String word() {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+
+    private String randomCase(String s) {
+        StringBuilder builder = new StringBuilder();
+        s.codePoints().forEach(codePoint -> builder.appendCodePoint(random.nextBoolean()
+                ? Character.toUpperCase(codePoint)
+                : Character.toLowerCase(codePoint)));
+        return builder.toString();
+    }
+}
@@ -1,5 +1,6 @@
 package org.nico.quoted.domain.model;
 
+import javafx.collections.ObservableList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,11 +10,19 @@ import org.nico.quoted.TestConfig;
 import org.nico.quoted.domain.*;
 import org.nico.quoted.model.ClientModel;
 import org.nico.quoted.model.RepositoryModel;
+import org.nico.quoted.repository.AsyncSnapshotRepository;
 import org.nico.quoted.repository.CRUDRepository;
+import org.nico.quoted.repository.SnapshotRepository;
+import org.nico.quoted.repository.UnitOfWorkRepository;
 
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +40,10 @@ class ClientModelTest {
     private CRUDRepository<Quote> quoteRepository = mock(CRUDRepository.class);
     @Mock
     private CRUDRepository<Article> articleRepository= mock(CRUDRepository.class);
+    @Mock
+    private SnapshotRepository snapshotRepository = mock(SnapshotRepository.class);
+    @Mock
+    private UnitOfWorkRepository unitOfWorkRepository = mock(UnitOfWorkRepository.class);
 
     @BeforeEach
     void setUp() {
@@ -38,12 +51,14 @@ class ClientModelTest {
         when(repositoryModel.getBookRepository()).thenReturn(bookRepository);
         when(repositoryModel.getQuoteRepository()).thenReturn(quoteRepository);
         when(repositoryModel.getArticleRepository()).thenReturn(articleRepository);
+        when(repositoryModel.getSnapshotRepository()).thenReturn(snapshotRepository);
+        when(repositoryModel.getUnitOfWorkRepository()).thenReturn(unitOfWorkRepository);
 
         // The test model has 2 books by 1 author and 1 article; 3 quotes each from a different source.
-        when(bookRepository.readAll()).thenReturn(TestConfig.defaultBooks());
-        when(articleRepository.readAll()).thenReturn(TestConfig.defaultArticles());
-        when(quoteRepository.readAll()).thenReturn(TestConfig.defaultQuotes());
-        when(authorRepository.readAll()).thenReturn(TestConfig.defaultAuthors());
+        List<Source> sources = new ArrayList<>(TestConfig.defaultBooks());
+        sources.addAll(TestConfig.defaultArticles());
+        when(snapshotRepository.readSnapshot()).thenReturn(
+                new SnapshotRepository.Snapshot(TestConfig.defaultAuthors(), sources, TestConfig.defaultQuotes()));
 
         model = new ClientModel(repositoryModel);
     }
@@ -90,6 +105,21 @@ class ClientModelTest {
         assertEquals(4, numberOfQuotes());
     }
 
+    @Test
+    @DisplayName("Test if quotes added together are persisted in a single bulk call")
+    void addQuotesInBulk() {
+        List<Quote> newQuotes = List.of(
+                new Quote("Test 1", firstBook()),
+                new Quote("Test 2", firstBook()),
+                new Quote("Test 3", firstArticle()));
+        model.getQuotes().addAll(newQuotes);
+        model.flush();
+
+        assertEquals(6, numberOfQuotes());
+        verify(unitOfWorkRepository, times(1)).write(eq(newQuotes), any(), any());
+        verify(quoteRepository, never()).create(any(Quote.class));
+    }
+
     @Test
     @DisplayName("Test if the model returns the correct number of quotes after deleting a quote")
     void deleteQuoteByIndex() {
@@ -98,6 +128,17 @@ class ClientModelTest {
         assertEquals(2, numberOfQuotes());
     }
 
+    @Test
+    @DisplayName("Test if an equal quote that is listed twice is still found after the first one was deleted")
+    void deleteFirstOfEqualQuotes() {
+        Quote first = firstQuote();
+        model.getQuotes().add(new Quote(first.getText(), first.getSource()));
+        model.deleteQuoteByIndex(0);
+
+        model.deleteQuote(new Quote(first.getText(), first.getSource()));
+        assertEquals(2, numberOfQuotes());
+    }
+
     @Test
     @DisplayName("Test if the model returns the correct quote by index")
     void getQuoteByIndex() {
@@ -111,6 +152,58 @@ class ClientModelTest {
         assertNotNull(model.getRandomQuote());
     }
 
+    @Test
+    @DisplayName("Test if random quotes do not repeat within the window")
+    void randomQuotesDoNotRepeat() {
+        for (int i = 0; i < 20; i++)
+            model.addQuote(new Quote("Random " + i, firstArticle()));
+
+        List<Quote> shown = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++)
+            shown.add(model.getRandomQuote());
+
+        // Window of 10, so every 11 consecutive quotes are distinct
+        for (int i = 0; i + 11 <= shown.size(); i++)
+            assertEquals(11, distinct(shown.subList(i, i + 11)));
+        assertEquals(23, distinct(shown));
+    }
+
+    @Test
+    @DisplayName("Test if random quotes cycle through a list shorter than the window")
+    void randomQuotesOfShortList() {
+        List<Quote> shown = new ArrayList<>();
+        for (int i = 0; i < 30; i++)
+            shown.add(model.getRandomQuote());
+
+        for (int i = 0; i + 3 <= shown.size(); i++)
+            assertEquals(3, distinct(shown.subList(i, i + 3)));
+    }
+
+    @Test
+    @DisplayName("Test if random quotes follow added and deleted quotes")
+    void randomQuotesFollowChanges() {
+        Quote deleted = firstQuote();
+        model.deleteQuote(deleted);
+        Quote added = new Quote("Added", firstArticle());
+        model.addQuote(added);
+
+        List<Quote> shown = new ArrayList<>();
+        for (int i = 0; i < 30; i++)
+            shown.add(model.getRandomQuote());
+
+        assertTrue(shown.stream().anyMatch(quote -> quote == added));
+        assertTrue(shown.stream().noneMatch(quote -> quote == deleted));
+
+        model.getQuotes().clear();
+        assertEquals("No quotes found", model.getRandomQuote().getText());
+    }
+
+    private static int distinct(List<Quote> quotes) {
+        Set<Quote> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        instances.addAll(quotes);
+        return instances.size();
+    }
+
     @Test
     @DisplayName("Test updating a quote")
     void updateQuote() {
@@ -136,6 +229,102 @@ class ClientModelTest {
         assertEquals(2, model.searchQuotes("Tolkien").size());
     }
 
+    @Test
+    @DisplayName("Test searching by word prefixes, ignoring case and accents")
+    void searchByPrefixes() {
+        model.addQuote(new Quote("Ärger über die Ölpreise", firstArticle()));
+
+        assertEquals(1, model.searchQuotes("herr RING").size());
+        assertEquals(1, model.searchQuotes("arger olpreis").size());
+        assertEquals(0, model.searchQuotes("herr hobbit").size());
+        assertEquals(1, model.searchSources("kleine tolk").size());
+    }
+
+    @Test
+    @DisplayName("Test searching with regex characters in the search string")
+    void searchWithRegexCharacters() {
+        assertDoesNotThrow(() -> model.searchQuotes("(Lorem"));
+        assertEquals(1, model.searchQuotes("(Lorem").size());
+        assertEquals(0, model.searchSources("[").size());
+    }
+
+    @Test
+    @DisplayName("Test if the search follows added, updated and deleted quotes")
+    void searchFollowsChanges() {
+        model.addQuote(new Quote("Searchable", firstArticle()));
+        assertEquals(1, model.searchQuotes("searchable").size());
+
+        model.setQuoteToEdit(model.searchQuotes("searchable").get(0));
+        model.updateQuote(new Quote("Changed", firstArticle()));
+        assertEquals(0, model.searchQuotes("searchable").size());
+        assertEquals(1, model.searchQuotes("changed").size());
+
+        model.deleteQuote(model.searchQuotes("changed").get(0));
+        assertEquals(0, model.searchQuotes("changed").size());
+    }
+
+    @Test
+    @DisplayName("Test if the search for quotes follows an edited source")
+    void searchFollowsEditedSource() {
+        model.setSourceToEdit(firstArticle());
+        model.updateSource(new Article("Renamed", firstArticle().getUrl()));
+
+        assertEquals(1, model.searchQuotes("renamed").size());
+        assertEquals(1, model.searchSources("renamed").size());
+    }
+
+    @Test
+    @DisplayName("Test searching in the background while quotes are added")
+    void searchWhileAdding() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> searches = executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++)
+                    model.searchQuotes("quote");
+            });
+            for (int i = 0; i < 1_000; i++)
+                model.addQuote(new Quote("Quote " + i, firstArticle()));
+
+            assertDoesNotThrow(() -> searches.get());
+            assertEquals(1_003, model.searchQuotes("quote").size()); // And the 3 sample quotes
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test if the search filters match what the searches find")
+    void searchFilters() {
+        assertEquals(2, model.getQuotes().filtered(model.quoteSearchFilter("Tolkien")).size());
+        assertEquals(2, model.getSources().filtered(model.sourceSearchFilter("Tolkien")).size());
+        assertEquals(3, model.getQuotes().filtered(model.quoteSearchFilter(" ")).size());
+    }
+
+    @Test
+    @DisplayName("Test if the search filters match quotes and sources added after the search")
+    void searchFiltersFollowChanges() {
+        List<Quote> foundQuotes = model.getQuotes().filtered(model.quoteSearchFilter("searchable"));
+        List<Source> foundSources = model.getSources().filtered(model.sourceSearchFilter("searchable"));
+
+        model.addQuote(new Quote("Searchable", new Book("Searchable", new Author("Test", "Test"))));
+
+        assertEquals(1, foundQuotes.size());
+        assertEquals(1, foundSources.size());
+
+        model.deleteQuote(foundQuotes.get(0));
+        assertEquals(0, foundQuotes.size());
+    }
+
+    @Test
+    @DisplayName("Test if the source filter matches quotes added to the source later")
+    void quoteSourceFilter() {
+        List<Quote> quotesOfFirstSource = model.getQuotes().filtered(model.quoteSourceFilter(firstSource()));
+        assertEquals(1, quotesOfFirstSource.size());
+
+        model.addQuote(new Quote("Test", new Book(firstBook().getTitle(), firstBook().getAuthor())));
+        assertEquals(2, quotesOfFirstSource.size());
+    }
+
     @Test
     @DisplayName("Test filtering quotes by source")
     void getQuotesBySource() {
@@ -201,6 +390,48 @@ class ClientModelTest {
         assertEquals(1, numberOfArticles());
     }
 
+    @Test
+    @DisplayName("Test if deleting a source removes all of its quotes, also from the quotes by source")
+    void deleteSourceWithManyQuotes() {
+        Source source = firstSource();
+        for (int i = 0; i < 2000; i++)
+            model.addQuote(new Quote("Test " + i, source));
+        ObservableList<Quote> quotesOfSource = model.getQuotesBySource(source);
+        assertEquals(2001, quotesOfSource.size());
+
+        model.deleteSource(source);
+        assertEquals(2, numberOfQuotes());
+        assertTrue(quotesOfSource.isEmpty());
+        assertTrue(model.getQuotesBySource(source).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test if a quote instance listed twice leaves quotes by source once both are removed")
+    void removeQuoteListedTwice() {
+        Book book = new Book("Listed twice", new Author("Test", "Test"));
+        model.addBook(book);
+        Quote quote = new Quote("Test", book);
+        model.getQuotes().add(quote);
+        model.getQuotes().add(quote);
+        assertEquals(2, model.getQuotesBySource(book).size());
+
+        model.getQuotes().remove(quote);
+        assertEquals(1, model.getQuotesBySource(book).size());
+        model.getQuotes().remove(quote);
+        assertTrue(model.getQuotesBySource(book).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test if quotes by source of a source without quotes is empty and follows once quotes are added")
+    void getQuotesBySourceWithoutQuotes() {
+        Book book = new Book("Without quotes", new Author("Test", "Test"));
+        model.addBook(book);
+        assertTrue(model.getQuotesBySource(book).isEmpty());
+
+        model.addQuote(new Quote("Test", book));
+        assertEquals(1, model.getQuotesBySource(book).size());
+    }
+
     // ######### EDGE CASES #########
     @Test
     @DisplayName("Test: Change the book of a quote by changing its title")
@@ -374,8 +605,136 @@ class ClientModelTest {
         assertTrue(timestamp2.after(timestamp1));
     }
 
+    @Test
+    @DisplayName("Test: A quote with a source equal to an existing one uses the existing instance")
+    void addQuoteWithEqualSourceUsesExistingInstance() {
+        Book equalBook = new Book("der herr der ringe", new Author("j.r.r.", "TOLKIEN"));
+        Quote quote = new Quote("Test", equalBook);
+
+        model.addQuote(quote);
+
+        assertSame(firstBook(), quote.getSource());
+        assertEquals(3, numberOfSources());
+        assertEquals(1, numberOfAuthors());
+    }
+
+    @Test
+    @DisplayName("Test: A quote is found for deletion after its source was edited")
+    void deleteQuoteAfterSourceWasEdited() {
+        Quote quote = new Quote("Test", firstArticle());
+        model.addQuote(quote);
+
+        model.setSourceToEdit(firstArticle());
+        firstArticle().setUrl("https://www.test.com");
+        model.updateSource(firstArticle());
+        model.deleteQuote(new Quote("Test", new Article("Test", "https://www.test.com")));
+
+        assertEquals(3, numberOfQuotes());
+    }
+
+    @Test
+    @DisplayName("Test: Quotes by source follow added quotes and deleted sources")
+    void quotesBySourceFollowChanges() {
+        List<Quote> quotesOfFirstSource = model.getQuotesBySource(firstSource());
+        model.addQuote(new Quote("Test", firstSource()));
+        assertEquals(2, quotesOfFirstSource.size());
+
+        model.deleteSourceByIndex(0);
+        assertEquals(0, quotesOfFirstSource.size());
+        assertEquals(2, numberOfQuotes());
+    }
+
+    @Test
+    @DisplayName("Test: Delete only the sources without quotes")
+    void deleteEmptySources() {
+        model.addBook(new Book("Test", new Author("Test", "Test")));
+        model.getSources().add(new Article("Test", "https://www.test.com"));
+
+        model.deleteEmptySources();
+
+        assertEquals(3, numberOfSources());
+        assertEquals(2, numberOfBooks());
+        assertEquals(1, numberOfArticles());
+        assertEquals(1, numberOfAuthors());
+        assertEquals(3, numberOfQuotes());
+    }
+
+    @Test
+    @DisplayName("Test if a model loaded in chunks shows the sources first, then the quotes as they arrive")
+    void loadInChunks() {
+        List<Source> sources = new ArrayList<>(TestConfig.defaultBooks());
+        sources.addAll(TestConfig.defaultArticles());
+        List<Quote> quotes = TestConfig.defaultQuotes();
+        List<Integer> shownQuotes = new ArrayList<>();
+        ClientModel[] loadingModel = new ClientModel[1];
+
+        doAnswer(invocation -> {
+            Consumer<SnapshotRepository.Snapshot> onChunk = invocation.getArgument(1);
+            onChunk.accept(new SnapshotRepository.Snapshot(TestConfig.defaultAuthors(), sources, List.of()));
+            assertEquals(3, loadingModel[0].getSources().size());
+            shownQuotes.add(loadingModel[0].getQuotes().size());
+            onChunk.accept(new SnapshotRepository.Snapshot(List.of(), List.of(), quotes.subList(0, 2)));
+            shownQuotes.add(loadingModel[0].getQuotes().size());
+            onChunk.accept(new SnapshotRepository.Snapshot(List.of(), List.of(), quotes.subList(2, 3)));
+            return null;
+        }).when(snapshotRepository).readSnapshot(anyInt(), any());
+        when(repositoryModel.getAsyncSnapshotRepository())
+                .thenReturn(new AsyncSnapshotRepository(snapshotRepository, Runnable::run, Runnable::run));
+
+        loadingModel[0] = new ClientModel(repositoryModel, false);
+        assertEquals(0, loadingModel[0].getSources().size());
+        assertFalse(loadingModel[0].isLoaded());
+
+        assertTrue(loadingModel[0].load().isDone());
+        assertEquals(List.of(0, 2), shownQuotes);
+        assertEquals(3, loadingModel[0].getQuotes().size());
+        assertEquals(2, loadingModel[0].getBooks().size());
+        assertEquals(1, loadingModel[0].getAuthors().size());
+        assertTrue(loadingModel[0].isLoaded());
+
+        // Loaded quotes are not written back
+        loadingModel[0].flush();
+        verify(unitOfWorkRepository, never()).write(any(), any(), any());
+    }
+
     // ############################## Load test ##############################
 
+    @Test
+    @DisplayName("Test: Delete 5000 empty sources among 10000 sources with 10000 quotes in under 1 second")
+    void deleteEmptySourcesAmong10000Sources() {
+        for (int i = 0; i < 5000; i++) {
+            Book book = new Book("Test " + i, new Author("Test", "Test"));
+            model.addQuote(new Quote("Test 1", book));
+            model.addQuote(new Quote("Test 2", book));
+            model.addBook(new Book("Empty " + i, new Author("Test", "Test")));
+        }
+
+        Instant start = Instant.now();
+        model.deleteEmptySources();
+        Instant end = Instant.now();
+
+        assertEquals(5003, numberOfSources());
+        assertEquals(10003, numberOfQuotes());
+        long durationInMillis = Duration.between(start, end).toMillis();
+        assertTrue(durationInMillis < 1000, "Took " + durationInMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("Test: Create 20000 quotes with 10000 distinct sources in under 2 seconds")
+    void create20000QuotesWith10000DistinctSources() {
+        Instant start = Instant.now();
+        for (int i = 0; i < 20000; i++) {
+            int n = i % 10000;
+            model.addQuote(new Quote("Test " + i, new Book("Test " + n, new Author("Test", "Author " + n % 100))));
+        }
+        Instant end = Instant.now();
+
+        assertEquals(10003, numberOfSources());
+        assertEquals(101, numberOfAuthors());
+        long durationInMillis = Duration.between(start, end).toMillis();
+        assertTrue(durationInMillis < 2000, "Took " + durationInMillis + " ms");
+    }
+
     @Test
     @DisplayName("Test: Create 1000 quotes with 1000 sources in under 1 second")
     void create1000QuotesWith1000Sources() {
@@ -0,0 +1,102 @@
+package org.nico.quoted.domain.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nico.quoted.model.DebouncedSearch;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebouncedSearchTest {
+    private static final long DELAY = 50;
+
+    private final List<String> searched = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<String> results = new LinkedBlockingQueue<>();
+    private DebouncedSearch<String> search;
+
+    @AfterEach
+    void tearDown() {
+        search.close();
+    }
+
+    // Results are handed over on the searching thread instead of the FX thread
+    private DebouncedSearch<String> debouncedSearch(Function<String, String> function) {
+        return new DebouncedSearch<>(searchString -> {
+            searched.add(searchString);
+            return function.apply(searchString);
+        }, results::add, DELAY, Executors.newVirtualThreadPerTaskExecutor(), Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Only the last of quickly typed search strings is searched")
+    void debounce() throws InterruptedException {
+        search = debouncedSearch(String::toUpperCase);
+        for (String searchString : List.of("t", "to", "tol", "tolk", "tolkien"))
+            search.submit(searchString);
+
+        assertEquals("TOLKIEN", results.poll(5, TimeUnit.SECONDS));
+        assertNull(results.poll(3 * DELAY, TimeUnit.MILLISECONDS));
+        assertEquals(List.of("tolkien"), searched);
+    }
+
+    @Test
+    @DisplayName("A superseded search that is still running is not interrupted, its result is dropped")
+    void supersededResultIsDropped() throws InterruptedException {
+        CountDownLatch slowSearchStarted = new CountDownLatch(1);
+        CountDownLatch slowSearchMayFinish = new CountDownLatch(1);
+        AtomicBoolean slowSearchInterrupted = new AtomicBoolean();
+        search = debouncedSearch(searchString -> {
+            if (searchString.equals("slow")) {
+                slowSearchStarted.countDown();
+                try {
+                    slowSearchMayFinish.await();
+                } catch (InterruptedException e) {
+                    slowSearchInterrupted.set(true);
+                }
+            }
+            return searchString;
+        });
+
+        search.submit("slow");
+        assertTrue(slowSearchStarted.await(5, TimeUnit.SECONDS));
+        search.submit("fast");
+        slowSearchMayFinish.countDown();
+
+        assertEquals("fast", results.poll(5, TimeUnit.SECONDS));
+        assertNull(results.poll(3 * DELAY, TimeUnit.MILLISECONDS));
+        assertFalse(slowSearchInterrupted.get());
+    }
+
+    @Test
+    @DisplayName("A cancelled search is neither run nor shown")
+    void cancel() throws InterruptedException {
+        search = debouncedSearch(Function.identity());
+        search.submit("tolkien");
+        search.cancel();
+
+        assertNull(results.poll(3 * DELAY, TimeUnit.MILLISECONDS));
+        assertTrue(searched.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A failing search does not stop later searches")
+    void failingSearch() throws InterruptedException {
+        search = debouncedSearch(searchString -> {
+            if (searchString.equals("fail"))
+                throw new IllegalStateException("Search failed");
+            return searchString;
+        });
+
+        search.submit("fail");
+        Thread.sleep(3 * DELAY);
+        search.submit("tolkien");
+
+        assertEquals("tolkien", results.poll(5, TimeUnit.SECONDS));
+        assertEquals(List.of("fail", "tolkien"), searched);
+    }
+}
@@ -0,0 +1,122 @@
+package org.nico.quoted.domain.model;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nico.quoted.model.PagedList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedListTest {
+    private static final int ROWS = 1_000;
+    private static final int PAGE_SIZE = 10;
+
+    private final List<Runnable> queries = new ArrayList<>(); // Run by runQueries instead of in the background
+    private final AtomicInteger pageQueries = new AtomicInteger();
+    private final PagedList.PageSource<String> source = new PagedList.PageSource<>() {
+        @Override
+        public long count() {
+            return ROWS;
+        }
+
+        @Override
+        public List<String> page(int offset, int limit) {
+            pageQueries.incrementAndGet();
+            return IntStream.range(offset, Math.min(offset + limit, ROWS)).mapToObj(i -> "Row " + i).toList();
+        }
+    };
+
+    private PagedList<String> list;
+
+    @BeforeEach
+    void setUp() {
+        list = pagedList(5);
+    }
+
+    private PagedList<String> pagedList(int maxPages) {
+        PagedList<String> pagedList = new PagedList<>(source, PAGE_SIZE, maxPages, queries::add, Runnable::run);
+        runQueries();
+        return pagedList;
+    }
+
+    private void runQueries() {
+        while (!queries.isEmpty())
+            queries.remove(0).run();
+    }
+
+    @Test
+    @DisplayName("The size is the row count, without loading any page")
+    void size() {
+        assertEquals(ROWS, list.size());
+        assertEquals(0, pageQueries.get());
+    }
+
+    @Test
+    @DisplayName("A row is null until its page was loaded, the next page is prefetched")
+    void loadOnDemand() {
+        assertNull(list.get(15));
+        runQueries();
+
+        assertEquals("Row 15", list.get(15));
+        assertEquals("Row 29", list.get(29));
+        assertEquals(2, pageQueries.get());
+    }
+
+    @Test
+    @DisplayName("Pages are loaded once")
+    void loadOnce() {
+        list.get(0);
+        list.get(1);
+        runQueries();
+        list.get(2);
+        runQueries();
+
+        assertEquals(2, pageQueries.get());
+    }
+
+    @Test
+    @DisplayName("Only the most recently used pages are kept")
+    void leastRecentlyUsedPagesAreDropped() {
+        for (int row = 0; row < ROWS; row += PAGE_SIZE) {
+            list.get(row);
+            runQueries();
+        }
+
+        assertEquals(5, list.loadedPages());
+        assertEquals("Row 990", list.get(990));
+        assertNull(list.get(0));
+    }
+
+    @Test
+    @DisplayName("Listeners are told when a page arrives")
+    void changeOnLoad() {
+        List<Integer> replacedFrom = new ArrayList<>();
+        list.addListener((ListChangeListener<String>) c -> {
+            while (c.next())
+                if (c.wasReplaced())
+                    replacedFrom.add(c.getFrom());
+        });
+
+        list.get(0);
+        runQueries();
+
+        assertEquals(List.of(0, 10), replacedFrom);
+    }
+
+    @Test
+    @DisplayName("Pages loading during a refresh are dropped")
+    void refresh() {
+        list.get(0);
+        list.refresh();
+        runQueries();
+
+        assertEquals(0, list.loadedPages());
+        assertEquals(ROWS, list.size());
+    }
+}
@@ -0,0 +1,114 @@
+package org.nico.quoted.domain.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nico.quoted.domain.Article;
+import org.nico.quoted.domain.Quote;
+import org.nico.quoted.model.RandomQuoteBuffer;
+import org.nico.quoted.repository.RandomQuoteRepository;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class RandomQuoteBufferTest {
+    private static final int SIZE = 10;
+    private static final int WINDOW = 5;
+
+    private final List<Runnable> queries = new ArrayList<>(); // Run by runQueries instead of in the background
+    private final RandomQuoteRepository repository = mock(RandomQuoteRepository.class);
+    private final Random random = new Random(42);
+
+    private RandomQuoteBuffer buffer(List<Quote> quotes) {
+        when(repository.readRandom(anyInt())).thenAnswer(invocation -> {
+            List<Quote> shuffled = new ArrayList<>(quotes);
+            Collections.shuffle(shuffled, random);
+            return shuffled.subList(0, Math.min(invocation.<Integer>getArgument(0), shuffled.size()));
+        });
+        return new RandomQuoteBuffer(repository, SIZE, WINDOW, queries::add, Runnable::run);
+    }
+
+    private static List<Quote> quotes(int count) {
+        Article article = new Article("Test", "https://www.test.com");
+        return IntStream.range(0, count).mapToObj(i -> {
+            Quote quote = new Quote("Quote " + i, article);
+            quote.setId(i);
+            return quote;
+        }).toList();
+    }
+
+    private void runQueries() {
+        while (!queries.isEmpty())
+            queries.remove(0).run();
+    }
+
+    @Test
+    @DisplayName("The first quote arrives once drawn, the next ones are at hand")
+    void prefetch() {
+        RandomQuoteBuffer buffer = buffer(quotes(100));
+        CompletableFuture<Quote> first = buffer.next();
+        assertFalse(first.isDone());
+
+        runQueries();
+        assertNotNull(first.join());
+        assertTrue(buffer.next().isDone());
+        verify(repository, times(1)).readRandom(SIZE);
+    }
+
+    @Test
+    @DisplayName("Quotes do not repeat within the window")
+    void noRepeats() {
+        RandomQuoteBuffer buffer = buffer(quotes(20));
+        List<Long> shown = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            CompletableFuture<Quote> next = buffer.next();
+            runQueries();
+            shown.add(next.join().getId());
+        }
+
+        for (int i = 0; i + WINDOW + 1 <= shown.size(); i++)
+            assertEquals(WINDOW + 1, new HashSet<>(shown.subList(i, i + WINDOW + 1)).size());
+    }
+
+    @Test
+    @DisplayName("With fewer quotes than the window, quotes repeat")
+    void fewQuotes() {
+        RandomQuoteBuffer buffer = buffer(quotes(2));
+        for (int i = 0; i < 10; i++) {
+            CompletableFuture<Quote> next = buffer.next();
+            runQueries();
+            assertNotNull(next.join());
+        }
+    }
+
+    @Test
+    @DisplayName("Without quotes, the next quote is null")
+    void noQuotes() {
+        RandomQuoteBuffer buffer = buffer(List.of());
+        CompletableFuture<Quote> next = buffer.next();
+        runQueries();
+
+        assertNull(next.join());
+    }
+
+    @Test
+    @DisplayName("A failed read fails the waiting quotes, the next quote is read again")
+    void failedRead() {
+        List<Quote> quotes = quotes(100);
+        RandomQuoteBuffer buffer = buffer(quotes);
+        when(repository.readRandom(anyInt()))
+                .thenThrow(new IllegalStateException("Database not available"))
+                .thenReturn(quotes.subList(0, SIZE));
+        CompletableFuture<Quote> failed = buffer.next();
+        runQueries();
+        assertTrue(failed.isCompletedExceptionally());
+
+        CompletableFuture<Quote> next = buffer.next();
+        runQueries();
+        assertNotNull(next.join());
+    }
+}
@@ -0,0 +1,126 @@
+package org.nico.quoted.domain.model;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.nico.quoted.domain.*;
+import org.nico.quoted.model.ClientModel;
+import org.nico.quoted.model.RepositoryModel;
+import org.nico.quoted.repository.CRUDRepository;
+import org.nico.quoted.repository.SnapshotRepository;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Compares the inverted index of ClientModel.searchQuotes with the regex scan it replaced, over 200k quotes
+// The timings are only logged, with ./gradlew test -Pbenchmarks
+
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SearchBenchmarkTest {
+    private static final int QUOTES = 200_000;
+    private static final int SOURCES = 2_000;
+    private static final int INDEX_RUNS = 20;
+    private static final int REGEX_RUNS = 3; // Compiles the regex twice per quote
+    private static final List<String> QUERIES = List.of("tolkien", "quote 4711", "lorem", "xqz");
+
+    private ClientModel model;
+
+    @BeforeAll
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        Random random = new Random(42);
+        String[] words = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do",
+                "eiusmod", "tempor", "incididunt", "labore", "magna", "aliqua", "veniam", "nostrud", "ullamco"};
+
+        List<Author> authors = new ArrayList<>();
+        List<Source> sources = new ArrayList<>();
+        for (int i = 0; i < SOURCES; i++) {
+            if (i % 10 == 0)
+                authors.add(new Author("Author", i == 0 ? "Tolkien" : "Number " + i));
+            sources.add(new Book("Book " + i, authors.get(authors.size() - 1)));
+        }
+
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < QUOTES; i++) {
+            StringBuilder text = new StringBuilder("Quote " + i);
+            for (int j = 0; j < 10; j++)
+                text.append(' ').append(words[random.nextInt(words.length)]);
+            quotes.add(new Quote(text.toString(), sources.get(random.nextInt(SOURCES))));
+        }
+
+        RepositoryModel repositoryModel = mock(RepositoryModel.class);
+        SnapshotRepository snapshotRepository = mock(SnapshotRepository.class);
+        when(repositoryModel.getAuthorRepository()).thenReturn(mock(CRUDRepository.class));
+        when(repositoryModel.getBookRepository()).thenReturn(mock(CRUDRepository.class));
+        when(repositoryModel.getArticleRepository()).thenReturn(mock(CRUDRepository.class));
+        when(repositoryModel.getQuoteRepository()).thenReturn(mock(CRUDRepository.class));
+        when(repositoryModel.getSnapshotRepository()).thenReturn(snapshotRepository);
+        when(snapshotRepository.readSnapshot()).thenReturn(new SnapshotRepository.Snapshot(authors, sources, quotes));
+
+        model = new ClientModel(repositoryModel);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "quoted.benchmarks", matches = "true")
+    @DisplayName("Benchmark: Inverted index against regex scan over 200k quotes")
+    void searchQuotes() {
+        for (String query : QUERIES) {
+            double indexMillis = averageMillis(model::searchQuotes, query, INDEX_RUNS);
+            double regexMillis = averageMillis(this::regexSearchQuotes, query, REGEX_RUNS);
+            log.info(String.format("Search \"%s\": %d results, index %.3f ms, regex scan %.3f ms",
+                    query, model.searchQuotes(query).size(), indexMillis, regexMillis));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "quoted.benchmarks", matches = "true")
+    @DisplayName("Benchmark: Selective search")
+    void selectiveSearch() {
+        assertTrue(model.searchQuotes("quote 4711").stream().anyMatch(quote -> quote.getText().startsWith("Quote 4711 ")));
+        assertEquals(0, model.searchQuotes("xqz").size());
+
+        double millis = averageMillis(model::searchQuotes, "quote 4711", INDEX_RUNS);
+        log.info(String.format("Search \"quote 4711\": %.3f ms on average", millis));
+    }
+
+    // None of the words of these queries occurs inside another word, where only the regex scan would find it,
+    // so the index finds the same quotes
+    @Test
+    @DisplayName("Test: Index and regex scan find the same quotes")
+    void sameResults() {
+        for (String query : QUERIES) {
+            Set<Quote> regexResults = Collections.newSetFromMap(new IdentityHashMap<>());
+            regexResults.addAll(regexSearchQuotes(query));
+            Set<Quote> indexResults = Collections.newSetFromMap(new IdentityHashMap<>());
+            indexResults.addAll(model.searchQuotes(query));
+            assertEquals(regexResults, indexResults, "Different results for \"" + query + "\"");
+        }
+    }
+
+    // The former implementation of ClientModel.searchQuotes, for search strings without regex characters
+    private ObservableList<Quote> regexSearchQuotes(String searchString) {
+        String regex = "(?i).*" + searchString + ".*";
+        return model.getQuotes().stream()
+                .filter(quote -> quote.getText().matches(regex)
+                        || quote.getSource().toString().matches(regex))
+                .collect(FXCollections::observableArrayList, ObservableList::add, ObservableList::addAll);
+    }
+
+    private double averageMillis(Function<String, ObservableList<Quote>> search, String query, int runs) {
+        search.apply(query); // Warm up
+
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++)
+            search.apply(query);
+        return (System.nanoTime() - start) / 1e6 / runs;
+    }
+}
@@ -0,0 +1,189 @@
+package org.nico.quoted.domain.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nico.quoted.domain.*;
+import org.nico.quoted.model.RepositoryModel;
+import org.nico.quoted.model.WriteBehindQueue;
+import org.nico.quoted.repository.UnitOfWorkRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class WriteBehindQueueTest {
+    private WriteBehindQueue queue;
+
+    private final RepositoryModel repositoryModel = mock(RepositoryModel.class);
+    private final UnitOfWorkRepository unitOfWorkRepository = mock(UnitOfWorkRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        when(repositoryModel.getUnitOfWorkRepository()).thenReturn(unitOfWorkRepository);
+
+        // Interval and threshold are high enough that only explicit flushes write; the test thread owns the entities
+        queue = new WriteBehindQueue(repositoryModel, 60_000, 1_000, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.close();
+    }
+
+    @Test
+    @DisplayName("Added then updated quote is created once with its latest state")
+    void addThenUpdate() {
+        Quote quote = new Quote("Test", new Article("Test", "https://www.test.com"));
+        queue.getQuotes().registerNew(quote);
+        quote.setText("Updated");
+        queue.getQuotes().registerDirty(quote);
+        queue.flush();
+
+        verify(unitOfWorkRepository).write(List.of(quote), List.of(), List.of());
+    }
+
+    @Test
+    @DisplayName("Added then removed quote is never written")
+    void addThenDelete() {
+        Quote quote = new Quote("Test", new Article("Test", "https://www.test.com"));
+        queue.getQuotes().registerNew(quote);
+        queue.getQuotes().registerRemoved(quote);
+
+        assertEquals(0, queue.pendingChanges());
+    }
+
+    @Test
+    @DisplayName("Updated then removed quote is only deleted")
+    void updateThenDelete() {
+        Quote quote = new Quote("Test", new Article("Test", "https://www.test.com"));
+        quote.setId(1);
+        queue.getQuotes().registerDirty(quote);
+        queue.getQuotes().registerRemoved(quote);
+        queue.flush();
+
+        verify(unitOfWorkRepository).write(List.of(), List.of(), List.of(quote));
+    }
+
+    @Test
+    @DisplayName("Replacing quote takes over the id of the replaced quote")
+    void replaceTakesOverId() {
+        Quote quote = new Quote("Test", new Article("Test", "https://www.test.com"));
+        quote.setId(7);
+        Quote replacingQuote = new Quote("Updated", quote.getSource());
+        queue.getQuotes().registerReplaced(quote, replacingQuote);
+        queue.flush();
+
+        assertEquals(7, replacingQuote.getId());
+        verify(unitOfWorkRepository).write(List.of(), List.of(replacingQuote), List.of());
+    }
+
+    @Test
+    @DisplayName("Sources are created before and deleted after their quotes, all in one write")
+    void writeOrder() {
+        Author author = new Author("Test", "Test");
+        Book book = new Book("Test", author);
+        Quote quote = new Quote("Test", book);
+        queue.getAuthors().registerNew(author);
+        queue.getBooks().registerNew(book);
+        queue.getQuotes().registerNew(quote);
+        queue.flush();
+
+        book.setId(1);
+        quote.setId(1);
+        queue.getQuotes().registerRemoved(quote);
+        queue.getBooks().registerRemoved(book);
+        queue.flush();
+
+        verify(unitOfWorkRepository).write(List.of(author, book, quote), List.of(), List.of());
+        verify(unitOfWorkRepository).write(List.of(), List.of(), List.of(quote, book));
+    }
+
+    @Test
+    @DisplayName("Changes of a failed write are kept and written with the next flush")
+    void failedWriteIsRetried() {
+        Author author = new Author("Test", "Test");
+        Book book = new Book("Test", author);
+        queue.getAuthors().registerNew(author);
+        queue.getBooks().registerNew(book);
+        doAnswer(invocation -> {
+            author.setId(1); // Ids are assigned before the rollback
+            book.setId(1);
+            throw new IllegalStateException("Connection lost");
+        }).doNothing().when(unitOfWorkRepository).write(any(), any(), any());
+
+        assertThrows(IllegalStateException.class, queue::flush);
+        assertEquals(2, queue.pendingChanges());
+        assertEquals(0, book.getId());
+
+        queue.flush();
+        verify(unitOfWorkRepository, times(2)).write(List.of(author, book), List.of(), List.of());
+        assertEquals(0, queue.pendingChanges());
+    }
+
+    @Test
+    @DisplayName("Ids of a failed write are reset on the owning thread, and nothing is written before")
+    void failedIdsAreResetByOwner() {
+        List<Runnable> ownerTasks = new ArrayList<>();
+        queue.close();
+        queue = new WriteBehindQueue(repositoryModel, 60_000, 1_000, ownerTasks::add);
+
+        Book book = new Book("Test", new Author("Test", "Test"));
+        queue.getBooks().registerNew(book);
+        doAnswer(invocation -> {
+            book.setId(1);
+            throw new IllegalStateException("Connection lost");
+        }).doNothing().when(unitOfWorkRepository).write(any(), any(), any());
+
+        assertThrows(IllegalStateException.class, queue::flush);
+        queue.flush();
+        assertEquals(1, book.getId());
+        verify(unitOfWorkRepository, times(1)).write(any(), any(), any());
+
+        ownerTasks.forEach(Runnable::run);
+        assertEquals(0, book.getId());
+        queue.flush();
+        verify(unitOfWorkRepository, times(2)).write(List.of(book), List.of(), List.of());
+    }
+
+    @Test
+    @DisplayName("Changes registered after a failed write are merged with its changes")
+    void changesAfterFailedWrite() {
+        Quote created = new Quote("Created", new Article("Test", "https://www.test.com"));
+        Quote deleted = new Quote("Deleted", created.getSource());
+        deleted.setId(2);
+        queue.getQuotes().registerNew(created);
+        queue.getQuotes().registerRemoved(deleted);
+        doThrow(new IllegalStateException("Connection lost")).doNothing()
+                .when(unitOfWorkRepository).write(any(), any(), any());
+        assertThrows(IllegalStateException.class, queue::flush);
+
+        // Edited after the failed write, and added again after its deletion failed
+        queue.getQuotes().registerDirty(created);
+        queue.getQuotes().registerNew(deleted);
+        queue.flush();
+
+        verify(unitOfWorkRepository).write(List.of(created), List.of(deleted), List.of());
+    }
+
+    @Test
+    @DisplayName("Write listeners run after each successful write only")
+    void writeListeners() {
+        Runnable listener = mock(Runnable.class);
+        queue.addWriteListener(listener);
+        doThrow(new IllegalStateException("Connection lost")).doNothing()
+                .when(unitOfWorkRepository).write(any(), any(), any());
+
+        queue.getQuotes().registerNew(new Quote("Test", new Article("Test", "https://www.test.com")));
+        assertThrows(IllegalStateException.class, queue::flush);
+        verify(listener, never()).run();
+
+        queue.flush();
+        queue.flush(); // Nothing pending
+        verify(listener, times(1)).run();
+    }
+}
@@ -0,0 +1,79 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nico.quoted.EmbeddedTestConfig;
+import org.nico.quoted.domain.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheTest {
+    private EntityManagerFactory emf;
+    private CRUDRepository<Author> authorRepository;
+    private CRUDRepository<Source> sourceRepository;
+    private CRUDRepository<Book> bookRepository;
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        emf = EmbeddedTestConfig.createCachingEntityManagerFactory();
+        authorRepository = new RepositoryImplementation<>(Author.class, emf);
+        sourceRepository = new RepositoryImplementation<>(Source.class, emf);
+        bookRepository = new RepositoryImplementation<>(Book.class, emf);
+        CRUDRepository<Article> articleRepository = new RepositoryImplementation<>(Article.class, emf);
+
+        author = new Author("J.R.R.", "Tolkien");
+        authorRepository.create(author);
+        bookRepository.createAll(List.of(new Book("Der Herr der Ringe", author), new Book("Der kleine Hobbit", author)));
+        articleRepository.create(new Article("Test article", "https://www.test.com"));
+
+        emf.unwrap(SessionFactory.class).getStatistics().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    @DisplayName("Author read by id twice is taken from the second-level cache")
+    void secondLevelCache() {
+        authorRepository.readById(author.getId());
+        authorRepository.readById(author.getId());
+
+        CacheStatistics statistics = CacheStatistics.of(emf);
+        assertTrue(statistics.secondLevelCacheHits() >= 2, statistics.toString()); // Also cached when created
+        assertEquals(0, statistics.secondLevelCacheMisses(), statistics.toString());
+    }
+
+    @Test
+    @DisplayName("Repeated polymorphic read of all sources is answered by the query cache")
+    void queryCache() {
+        assertEquals(3, sourceRepository.readAll().size());
+        assertEquals(3, sourceRepository.readAll().size());
+
+        CacheStatistics statistics = CacheStatistics.of(emf);
+        assertEquals(1, statistics.queryCacheMisses(), statistics.toString());
+        assertEquals(1, statistics.queryCacheHits(), statistics.toString());
+    }
+
+    @Test
+    @DisplayName("Writing a book invalidates cached source queries")
+    void queryCacheInvalidation() {
+        sourceRepository.readAll();
+        Book book = bookRepository.readAll().get(0);
+        book.setTitle("The Lord of the Rings");
+        bookRepository.update(book);
+
+        List<Source> sources = sourceRepository.readAll();
+
+        assertTrue(sources.stream().anyMatch(source -> source.getTitle().equals("The Lord of the Rings")));
+        assertEquals(0, CacheStatistics.of(emf).queryCacheHits());
+    }
+}
@@ -0,0 +1,159 @@
+package org.nico.quoted.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.nico.quoted.TestConfig;
+import org.nico.quoted.config.ConnectionPool;
+import org.nico.quoted.domain.Author;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Latency per operation of RepositoryImplementation on the postgresql test database: with a new connection per
+// operation, with the built-in pool of Hibernate as configured in persistence.xml, and with HikariCP and pgjdbc's
+// statement cache as in quoted-pool.properties.example
+// The latencies are only logged, with ./gradlew test -Pbenchmarks
+
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "quoted.testDatabase", matches = "postgresql")
+@EnabledIfSystemProperty(named = "quoted.benchmarks", matches = "true")
+class ConnectionPoolBenchmarkTest {
+    private static final int OPERATIONS = 200; // Of each kind: create, read, update and delete
+
+    private String url;
+    private String user;
+    private String password;
+
+    @BeforeAll
+    void setUp() {
+        Map<String, Object> properties = TestConfig.TEST_EMF.getProperties(); // Also creates the tables
+        url = (String) properties.get(AvailableSettings.JAKARTA_JDBC_URL);
+        user = (String) properties.get(AvailableSettings.JAKARTA_JDBC_USER);
+        password = (String) properties.get(AvailableSettings.JAKARTA_JDBC_PASSWORD);
+    }
+
+    @Test
+    @DisplayName("Benchmark: Latency per repository operation without pool, with the built-in pool and with HikariCP")
+    void latency() {
+        double unpooled = averageMillis(entityManagerFactory(Map.of(AvailableSettings.JAKARTA_NON_JTA_DATASOURCE, new UnpooledDataSource())));
+        double builtIn = averageMillis(entityManagerFactory(Map.of()));
+
+        HikariDataSource dataSource = ConnectionPool.createDataSource(hikariProperties());
+        double hikari;
+        try {
+            hikari = averageMillis(entityManagerFactory(ConnectionPool.entityManagerFactoryProperties(dataSource)));
+        } finally {
+            dataSource.close();
+        }
+
+        log.info(String.format("Per operation: without pool %.3f ms, built-in pool %.3f ms, HikariCP %.3f ms", unpooled, builtIn, hikari));
+    }
+
+    private EntityManagerFactory entityManagerFactory(Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>(overrides);
+        properties.put(AvailableSettings.HBM2DDL_AUTO, "none"); // Tables belong to TestConfig.TEST_EMF
+        return new HibernatePersistenceProvider().createEntityManagerFactory(TestConfig.TEST_DB_NAME, properties);
+    }
+
+    private Properties hikariProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("jdbcUrl", url);
+        properties.setProperty("username", user);
+        properties.setProperty("password", password);
+        properties.setProperty("maximumPoolSize", "4");
+        properties.setProperty("autoCommit", "false");
+        properties.setProperty("dataSource.prepareThreshold", "3");
+        properties.setProperty("dataSource.preparedStatementCacheQueries", "256");
+        properties.setProperty("dataSource.preparedStatementCacheSizeMiB", "5");
+        return properties;
+    }
+
+    // Average over all operations, after a round to warm up; closes the EntityManagerFactory
+    private double averageMillis(EntityManagerFactory emf) {
+        try {
+            CRUDRepository<Author> repository = new RepositoryImplementation<>(Author.class, emf);
+            runOperations(repository, 20);
+
+            long start = System.nanoTime();
+            runOperations(repository, OPERATIONS);
+            return (System.nanoTime() - start) / 1e6 / (4 * OPERATIONS);
+        } finally {
+            emf.close();
+        }
+    }
+
+    private static void runOperations(CRUDRepository<Author> repository, int count) {
+        for (int i = 0; i < count; i++) {
+            Author author = new Author("Benchmark", "Author " + i);
+            repository.create(author);
+            assertTrue(repository.readById(author.getId()).isPresent());
+            author.setLastName("Updated " + i);
+            repository.update(author);
+            repository.delete(author);
+        }
+    }
+
+    // Opens a new connection for every operation
+    private class UnpooledDataSource implements DataSource {
+        @Override
+        public Connection getConnection() throws SQLException {
+            return DriverManager.getConnection(url, user, password);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return DriverManager.getConnection(url, username, password);
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> type) throws SQLException {
+            throw new SQLException("Not a wrapper");
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> type) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nico.quoted.EmbeddedTestConfig;
+import org.nico.quoted.domain.Author;
+import org.nico.quoted.domain.Book;
+import org.nico.quoted.domain.Quote;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The embedded mode on an H2 database file: created by the migrations, kept across restarts
+
+@Slf4j
+class EmbeddedDatabaseTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Quotes written to the database file are read again after a restart, without migrating again")
+    void restart() {
+        String path = directory.resolve("quote_db").toString();
+
+        EntityManagerFactory emf = EmbeddedTestConfig.createFileEntityManagerFactory(path);
+        try {
+            assertEquals(2, schemaVersion(emf).size());
+            Author author = new Author("J.R.R.", "Tolkien");
+            new RepositoryImplementation<>(Author.class, emf).create(author);
+            Book book = new Book("Der Herr der Ringe", author);
+            new RepositoryImplementation<>(Book.class, emf).create(book);
+            new RepositoryImplementation<>(Quote.class, emf).createAll(List.of(new Quote("Ein Ring", book), new Quote("Zwei Ringe", book)));
+        } finally {
+            emf.close();
+        }
+        assertTrue(Files.exists(directory.resolve("quote_db.mv.db")));
+
+        Instant start = Instant.now();
+        emf = EmbeddedTestConfig.createFileEntityManagerFactory(path);
+        Duration restart = Duration.between(start, Instant.now());
+        try {
+            log.info("Restart on the database file: " + restart.toMillis() + " ms");
+            assertEquals(2, schemaVersion(emf).size());
+            SnapshotRepository.Snapshot snapshot = new SnapshotRepositoryImplementation(emf).readSnapshot();
+            assertEquals(1, snapshot.authors().size());
+            assertEquals(1, snapshot.sources().size());
+            assertEquals(2, snapshot.quotes().size());
+        } finally {
+            emf.close();
+        }
+    }
+
+    private List<Integer> schemaVersion(EntityManagerFactory emf) {
+        try (Session session = emf.unwrap(SessionFactory.class).openSession()) {
+            return session.createNativeQuery("select version from " + SchemaMigration.HISTORY_TABLE, Integer.class).getResultList();
+        }
+    }
+}
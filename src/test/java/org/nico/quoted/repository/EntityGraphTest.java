@@ -0,0 +1,115 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.nico.quoted.EmbeddedTestConfig;
+import org.nico.quoted.domain.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EntityGraphTest {
+    private static final int NUMBER_OF_AUTHORS = 20;
+    private static final int NUMBER_OF_BOOKS = 40;
+    private static final int NUMBER_OF_ARTICLES = 10;
+
+    private EntityManagerFactory emf;
+    private Statistics statistics;
+    private CRUDRepository<Quote> quoteRepository;
+    private CRUDRepository<Book> bookRepository;
+    private CRUDRepository<Source> sourceRepository;
+    private CRUDRepository<Author> authorRepository;
+
+    @BeforeAll
+    void setUp() {
+        emf = EmbeddedTestConfig.createEntityManagerFactory();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        quoteRepository = new RepositoryImplementation<>(Quote.class, emf);
+        bookRepository = new RepositoryImplementation<>(Book.class, emf);
+        sourceRepository = new RepositoryImplementation<>(Source.class, emf);
+        authorRepository = new RepositoryImplementation<>(Author.class, emf);
+        CRUDRepository<Article> articleRepository = new RepositoryImplementation<>(Article.class, emf);
+
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_AUTHORS; i++)
+            authors.add(new Author("First " + i, "Last " + i));
+        authorRepository.createAll(authors);
+
+        List<Source> sources = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_BOOKS; i++)
+            sources.add(new Book("Book " + i, authors.get(i % NUMBER_OF_AUTHORS)));
+        bookRepository.createAll(sources.stream().map(Book.class::cast).toList());
+        List<Article> articles = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_ARTICLES; i++)
+            articles.add(new Article("Article " + i, "https://www.test.com/" + i));
+        articleRepository.createAll(articles);
+        sources.addAll(articles);
+
+        quoteRepository.createAll(sources.stream()
+                .flatMap(source -> List.of(new Quote("First quote", source), new Quote("Second quote", source)).stream())
+                .toList());
+    }
+
+    @AfterAll
+    void tearDown() {
+        emf.close();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Quotes with source: sources are joined, their authors loaded in one batch")
+    void quotesWithSource() {
+        List<Quote> quotes = quoteRepository.readAll(Quote.GRAPH_WITH_SOURCE);
+
+        assertEquals(2 * (NUMBER_OF_BOOKS + NUMBER_OF_ARTICLES), quotes.size());
+        assertTrue(statistics.getPrepareStatementCount() <= 2, statistics.getPrepareStatementCount() + " statements");
+        quotes.forEach(quote -> assertNotNull(quote.getSource().getOrigin()));
+    }
+
+    @Test
+    @DisplayName("Books with author: one statement")
+    void booksWithAuthor() {
+        List<Book> books = bookRepository.readAll(Book.GRAPH_WITH_AUTHOR);
+
+        assertEquals(NUMBER_OF_BOOKS, books.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        books.forEach(book -> assertTrue(Hibernate.isInitialized(book.getAuthor())));
+    }
+
+    @Test
+    @DisplayName("Sources with quotes: quotes are joined, authors loaded in one batch")
+    void sourcesWithQuotes() {
+        List<Source> sources = sourceRepository.readAll(Source.GRAPH_WITH_QUOTES);
+
+        assertEquals(NUMBER_OF_BOOKS + NUMBER_OF_ARTICLES, sources.size());
+        assertTrue(statistics.getPrepareStatementCount() <= 2, statistics.getPrepareStatementCount() + " statements");
+        sources.forEach(source -> assertEquals(2, source.getQuotes().size()));
+    }
+
+    @Test
+    @DisplayName("Author with books by id: one statement")
+    void authorWithBooks() {
+        long id = authorRepository.readAll().get(0).getId();
+        statistics.clear();
+
+        Author author = authorRepository.readById(id, Author.GRAPH_WITH_BOOKS).orElseThrow();
+
+        assertEquals(NUMBER_OF_BOOKS / NUMBER_OF_AUTHORS, author.getBooks().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
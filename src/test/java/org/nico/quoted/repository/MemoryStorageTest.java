@@ -0,0 +1,141 @@
+package org.nico.quoted.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nico.quoted.domain.*;
+import org.nico.quoted.model.ClientModel;
+import org.nico.quoted.model.RepositoryModel;
+import org.nico.quoted.repository.memory.MemoryStorageProvider;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryStorageTest {
+    private Storage storage;
+    private CRUDRepository<Author> authorRepository;
+    private CRUDRepository<Book> bookRepository;
+    private CRUDRepository<Article> articleRepository;
+    private CRUDRepository<Quote> quoteRepository;
+
+    @BeforeEach
+    void setUp() {
+        storage = StorageProvider.find(MemoryStorageProvider.NAME).open();
+        authorRepository = storage.repository(Author.class);
+        bookRepository = storage.repository(Book.class);
+        articleRepository = storage.repository(Article.class);
+        quoteRepository = storage.repository(Quote.class);
+    }
+
+    @Test
+    @DisplayName("Both storage engines are found through ServiceLoader, each memory storage has data of its own")
+    void providers() {
+        assertEquals("jpa", StorageProvider.find("jpa").name());
+        assertThrows(IllegalStateException.class, () -> StorageProvider.find("unknown"));
+
+        authorRepository.create(new Author("J.R.R.", "Tolkien"));
+        assertEquals(0, StorageProvider.find(MemoryStorageProvider.NAME).open().repository(Author.class).count());
+    }
+
+    @Test
+    @DisplayName("Ids are generated on create, books and articles share them like source_seq")
+    void create() {
+        Author author = new Author("J.R.R.", "Tolkien");
+        authorRepository.create(author);
+        Book book = new Book("Der Herr der Ringe", author);
+        bookRepository.create(book);
+        Article article = new Article("Article", "https://www.test.com");
+        articleRepository.create(article);
+
+        assertNotEquals(0, author.getId());
+        assertNotEquals(book.getId(), article.getId());
+        assertSame(book, bookRepository.readById(book.getId()).orElseThrow());
+        assertEquals(List.of(book, article), storage.snapshotRepository().readSnapshot().sources());
+
+        bookRepository.delete(book);
+        assertTrue(bookRepository.readById(book.getId()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Pages are ordered by id, by offset and by keyset")
+    void pages() {
+        Article article = new Article("Article", "https://www.test.com");
+        articleRepository.create(article);
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < 25; i++)
+            quotes.add(new Quote("Quote " + i, article));
+        quoteRepository.createAll(quotes);
+
+        assertEquals(25, quoteRepository.count());
+        assertEquals(quotes.subList(10, 20), quoteRepository.readPage(10, 10));
+        assertEquals(quotes.subList(10, 20), quoteRepository.readAfter(quotes.get(9).getId(), 10));
+        assertEquals(5, quoteRepository.readPage(20, 10).size());
+
+        List<SnapshotRepository.Snapshot> chunks = new ArrayList<>();
+        storage.snapshotRepository().readSnapshot(10, chunks::add);
+        assertEquals(4, chunks.size()); // Sources, then 10, 10 and 5 quotes
+    }
+
+    @Test
+    @DisplayName("Searches match every word in the text or in the title of the source, random quotes are distinct")
+    void searchAndRandom() {
+        Article article = new Article("Der Herr der Ringe", "https://www.test.com");
+        articleRepository.create(article);
+        quoteRepository.createAll(List.of(new Quote("Ein Ring", article), new Quote("Nicht alle", article), new Quote("Zwei", article)));
+
+        assertEquals(1, storage.quoteSearchRepository().count("ring ein"));
+        assertEquals(3, storage.quoteSearchRepository().count("herr"));
+        assertEquals(2, storage.quoteSearchRepository().search("herr", 1, 10).size());
+
+        List<Quote> random = storage.randomQuoteRepository().readRandom(5);
+        assertEquals(3, random.size());
+        assertEquals(3, new HashSet<>(random).size());
+    }
+
+    @Test
+    @DisplayName("The ClientModel writes to the memory storage, a new model reads it again")
+    void clientModel() {
+        ClientModel model = new ClientModel(new RepositoryModel(storage));
+        Author author = new Author("J.R.R.", "Tolkien");
+        Book book = new Book("Der Herr der Ringe", author);
+        model.addQuote(new Quote("Ein Ring", book));
+        model.addQuote(new Quote("Nicht alle", book));
+        model.close();
+
+        ClientModel reread = new ClientModel(new RepositoryModel(storage));
+        assertEquals(2, reread.getQuotes().size());
+        assertEquals(1, reread.getBooks().size());
+        assertEquals(1, reread.getAuthors().size());
+        assertSame(reread.getBooks().get(0), reread.getQuotes().get(0).getSource());
+        reread.close();
+    }
+
+    @Test
+    @DisplayName("Concurrent creates get distinct ids")
+    void concurrentCreate() throws Exception {
+        Article article = new Article("Article", "https://www.test.com");
+        articleRepository.create(article);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1_000; j++)
+                        quoteRepository.create(new Quote("Quote " + j, article));
+                }));
+            for (Future<?> future : futures)
+                future.get();
+        }
+
+        Set<Long> ids = new HashSet<>();
+        quoteRepository.readAll().forEach(quote -> ids.add(quote.getId()));
+        assertEquals(8_000, ids.size());
+    }
+}
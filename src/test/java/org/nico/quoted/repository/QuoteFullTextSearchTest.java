@@ -0,0 +1,81 @@
+package org.nico.quoted.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.nico.quoted.TestConfig;
+import org.nico.quoted.domain.Author;
+import org.nico.quoted.domain.Book;
+import org.nico.quoted.domain.Quote;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The tsvector search on postgresql, after the migrations up to V4__quote_search.sql ran on the test database
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "quoted.testDatabase", matches = "postgresql")
+class QuoteFullTextSearchTest {
+    private QuoteSearchRepository searchRepository;
+    private CRUDRepository<Quote> quoteRepository;
+    private CRUDRepository<Book> bookRepository;
+    private CRUDRepository<Author> authorRepository;
+    private Author author;
+
+    @BeforeAll
+    void setUp() {
+        SchemaMigration.migrate(TestConfig.TEST_EMF); // Tables were created by TestConfig.TEST_EMF
+
+        searchRepository = new QuoteSearchRepositoryImplementation(TestConfig.TEST_EMF);
+        quoteRepository = new RepositoryImplementation<>(Quote.class, TestConfig.TEST_EMF);
+        bookRepository = new RepositoryImplementation<>(Book.class, TestConfig.TEST_EMF);
+        authorRepository = new RepositoryImplementation<>(Author.class, TestConfig.TEST_EMF);
+
+        author = new Author("J.R.R.", "Tolkien");
+        authorRepository.create(author);
+        Book book = new Book("Der Herr der Ringe", author);
+        bookRepository.create(book);
+        quoteRepository.createAll(List.of(
+                new Quote("Ein Ring sie zu knechten, ein Ring sie alle zu finden", book),
+                new Quote("Nicht alle, die wandern, sind verloren", book),
+                new Quote("Ein Ring", book)));
+    }
+
+    @AfterAll
+    void tearDown() {
+        quoteRepository.readAll().forEach(quoteRepository::delete);
+        bookRepository.readAll().forEach(bookRepository::delete);
+        authorRepository.readAll().forEach(authorRepository::delete);
+    }
+
+    @Test
+    @DisplayName("Search quotes with web search syntax, more frequent matches first")
+    void searchRanked() {
+        List<Quote> quotes = searchRepository.search("ring", 0, 10);
+
+        assertEquals(2, quotes.size());
+        assertTrue(quotes.get(0).getText().startsWith("Ein Ring sie zu knechten"));
+        assertEquals(1, searchRepository.count("\"alle zu finden\""));
+        assertEquals(1, searchRepository.count("alle -ring"));
+    }
+
+    @Test
+    @DisplayName("Search quotes by the title and author of their book, also after the author was renamed")
+    void searchSource() {
+        assertEquals(3, searchRepository.count("herr tolkien"));
+
+        author.setLastName("Reuel Tolkien");
+        authorRepository.update(author);
+        assertEquals(3, searchRepository.count("reuel"));
+    }
+
+    @Test
+    @DisplayName("Search strings that are no valid query do not fail")
+    void searchInvalidQuery() {
+        assertDoesNotThrow(() -> searchRepository.search("(ring & -", 0, 10));
+    }
+}
@@ -14,7 +14,10 @@ import org.nico.quoted.domain.Quote;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -88,6 +91,29 @@ class QuoteRepositoryTest {
         assertEquals(3, quoteRepository.readAll().size());
     }
 
+    @Test
+    @DisplayName("Read quotes page by page, by offset and by keyset")
+    void readPages() {
+        List<Quote> quotes = IntStream.range(0, 25)
+                .mapToObj(i -> new Quote("Test quote " + i, book))
+                .toList();
+        quoteRepository.createAll(quotes);
+
+        assertEquals(25, quoteRepository.count());
+        assertEquals(10, quoteRepository.readPage(0, 10).size());
+        assertEquals(5, quoteRepository.readPage(20, 10).size());
+        assertEquals(quoteRepository.readPage(10, 10), quoteRepository.readAfter(quotes.get(9).getId(), 10));
+
+        // Walk all quotes by keyset, without skipping or repeating any
+        List<Quote> walked = new ArrayList<>();
+        List<Quote> page = quoteRepository.readAfter(0, 10);
+        while (!page.isEmpty()) {
+            walked.addAll(page);
+            page = quoteRepository.readAfter(page.get(page.size() - 1).getId(), 10);
+        }
+        assertEquals(quotes.stream().map(Quote::getId).toList(), walked.stream().map(Quote::getId).toList());
+    }
+
     @Test
     void update() {
         Quote quote = new Quote("Test quote", book);
@@ -109,6 +135,25 @@ class QuoteRepositoryTest {
         assertEquals(Optional.empty(), quoteRepository.readById(quote.getId()));
     }
 
+    @Test
+    @DisplayName("Create, update and delete quotes in bulk")
+    void bulkOperations() {
+        List<Quote> quotes = IntStream.range(0, 120)
+                .mapToObj(i -> new Quote("Test quote " + i, i % 2 == 0 ? book : article))
+                .toList();
+
+        quoteRepository.createAll(quotes);
+        assertEquals(120, quoteRepository.readAll().size());
+        assertTrue(quotes.stream().allMatch(quote -> quote.getId() != 0));
+
+        quotes.forEach(quote -> quote.setText(quote.getText() + " updated"));
+        quoteRepository.updateAll(quotes);
+        assertTrue(quoteRepository.readAll().stream().allMatch(quote -> quote.getText().endsWith(" updated")));
+
+        quoteRepository.deleteAll(quotes.subList(0, 100));
+        assertEquals(20, quoteRepository.readAll().size());
+    }
+
     @Test
     void testLastEdited() {
         Quote quote = new Quote("Test quote", book);
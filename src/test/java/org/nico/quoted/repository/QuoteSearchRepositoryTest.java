@@ -0,0 +1,95 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.nico.quoted.EmbeddedTestConfig;
+import org.nico.quoted.domain.Article;
+import org.nico.quoted.domain.Author;
+import org.nico.quoted.domain.Book;
+import org.nico.quoted.domain.Quote;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The like query fallback, as used on H2 and on postgresql databases before V4__quote_search.sql
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QuoteSearchRepositoryTest {
+    private EntityManagerFactory emf;
+    private QuoteSearchRepository searchRepository;
+
+    @BeforeAll
+    void setUp() {
+        emf = EmbeddedTestConfig.createEntityManagerFactory();
+        searchRepository = new QuoteSearchRepositoryImplementation(emf);
+
+        Author author = new Author("J.R.R.", "Tolkien");
+        new RepositoryImplementation<>(Author.class, emf).create(author);
+        Book book = new Book("Der Herr der Ringe", author);
+        new RepositoryImplementation<>(Book.class, emf).create(book);
+        Article article = new Article("100% sicher", "https://www.test.com");
+        new RepositoryImplementation<>(Article.class, emf).create(article);
+
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < 30; i++)
+            quotes.add(new Quote("Ein Ring sie zu knechten " + i, book));
+        quotes.add(new Quote("Lorem ipsum", article));
+        new RepositoryImplementation<>(Quote.class, emf).createAll(quotes);
+    }
+
+    @AfterAll
+    void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    @DisplayName("Search quotes by words in their text, ignoring case")
+    void searchText() {
+        assertEquals(1, searchRepository.search("LOREM", 0, 10).size());
+        assertEquals(30, searchRepository.count("ring knechten"));
+        assertEquals(0, searchRepository.count("ring lorem"));
+    }
+
+    @Test
+    @DisplayName("Search quotes by the title of their source")
+    void searchSourceTitle() {
+        assertEquals(30, searchRepository.count("herr ring"));
+        assertEquals(1, searchRepository.count("sicher"));
+    }
+
+    @Test
+    @DisplayName("Search quotes by the origin of their source")
+    void searchSourceOrigin() {
+        assertEquals(30, searchRepository.count("tolkien"));
+        assertEquals(30, searchRepository.count("tolkien ring"));
+        assertEquals(1, searchRepository.count("www.test.com"));
+    }
+
+    @Test
+    @DisplayName("Search results are paged")
+    void searchPages() {
+        List<Quote> firstPage = searchRepository.search("ring", 0, 20);
+        List<Quote> secondPage = searchRepository.search("ring", 20, 20);
+
+        assertEquals(20, firstPage.size());
+        assertEquals(10, secondPage.size());
+        assertTrue(firstPage.stream().noneMatch(secondPage::contains));
+        assertNotNull(firstPage.get(0).getSource().getTitle()); // Fetched with the quote
+    }
+
+    @Test
+    @DisplayName("Like wildcards are matched literally, blank search strings match nothing")
+    void searchSpecialCharacters() {
+        assertEquals(1, searchRepository.count("100%"));
+        assertEquals(1, searchRepository.count("%")); // Only the title containing a percent sign
+        assertEquals(0, searchRepository.count("_"));
+        assertEquals(0, searchRepository.count(" "));
+        assertTrue(searchRepository.search("", 0, 10).isEmpty());
+    }
+}
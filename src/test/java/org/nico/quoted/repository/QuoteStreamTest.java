@@ -0,0 +1,129 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.nico.quoted.EmbeddedTestConfig;
+import org.nico.quoted.config.DBConfig;
+import org.nico.quoted.domain.Article;
+import org.nico.quoted.domain.Quote;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QuoteStreamTest {
+    private static final int NUMBER_OF_QUOTES = 100_000;
+    private static final String TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(10);
+    private static final long MAX_HEAP_GROWTH = 32 * 1024 * 1024; // Far below the size of all quotes in memory
+
+    private EntityManagerFactory emf;
+    private CRUDRepository<Quote> quoteRepository;
+    private CRUDRepository<Article> articleRepository;
+
+    @BeforeAll
+    void setUp() {
+        emf = EmbeddedTestConfig.createEntityManagerFactory();
+        quoteRepository = new RepositoryImplementation<>(Quote.class, emf);
+        articleRepository = new RepositoryImplementation<>(Article.class, emf);
+
+        Article article = new Article("Test article", "https://www.test.com");
+        articleRepository.create(article);
+        articleRepository.createAll(IntStream.range(0, DBConfig.STREAM_FETCH_SIZE * 2)
+                .mapToObj(i -> new Article("Article " + i, "https://www.test.com/" + i))
+                .toList());
+
+        for (int offset = 0; offset < NUMBER_OF_QUOTES; offset += 10_000) {
+            int start = offset;
+            List<Quote> quotes = IntStream.range(start, start + 10_000)
+                    .mapToObj(i -> new Quote(i + " " + TEXT, article))
+                    .toList();
+            quoteRepository.createAll(quotes);
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        emf.close();
+    }
+
+    // Heap measurements depend on the garbage collector, so this only runs with ./gradlew test -Pbenchmarks
+    @Test
+    @EnabledIfSystemProperty(named = "quoted.benchmarks", matches = "true")
+    @DisplayName("Stream 100k quotes in order with bounded heap")
+    void streamAll() {
+        long heapBefore = usedHeap();
+        AtomicLong count = new AtomicLong();
+        AtomicLong lastId = new AtomicLong();
+        AtomicLong maxHeapGrowth = new AtomicLong();
+
+        try (Stream<Quote> quotes = quoteRepository.streamAll()) {
+            quotes.forEach(quote -> {
+                assertTrue(quote.getId() > lastId.get());
+                lastId.set(quote.getId());
+
+                if (count.incrementAndGet() % 20_000 == 0)
+                    maxHeapGrowth.accumulateAndGet(usedHeap() - heapBefore, Math::max);
+            });
+        }
+
+        assertEquals(NUMBER_OF_QUOTES, count.get());
+        assertTrue(maxHeapGrowth.get() < MAX_HEAP_GROWTH,
+                "Heap grew by " + maxHeapGrowth.get() / (1024 * 1024) + " MB while streaming");
+    }
+
+    @Test
+    @DisplayName("Stream 100k quotes in order")
+    void streamAllInOrder() {
+        AtomicLong count = new AtomicLong();
+        AtomicLong lastId = new AtomicLong();
+
+        try (Stream<Quote> quotes = quoteRepository.streamAll()) {
+            quotes.forEach(quote -> {
+                assertTrue(quote.getId() > lastId.get());
+                lastId.set(quote.getId());
+                count.incrementAndGet();
+            });
+        }
+
+        assertEquals(NUMBER_OF_QUOTES, count.get());
+    }
+
+    @Test
+    @DisplayName("Lazy associations of streamed entities can be loaded, also at the end of a chunk")
+    void lazyAssociationsAcrossChunks() {
+        AtomicLong count = new AtomicLong();
+
+        try (Stream<Article> articles = articleRepository.streamAll()) {
+            articles.forEach(article -> {
+                article.getQuotes().size();
+                count.incrementAndGet();
+            });
+        }
+
+        assertEquals(DBConfig.STREAM_FETCH_SIZE * 2 + 1, count.get());
+    }
+
+    @Test
+    @DisplayName("Closing a partially consumed stream releases it")
+    void closePartiallyConsumedStream() {
+        try (Stream<Quote> quotes = quoteRepository.streamAll()) {
+            assertEquals(10, quotes.limit(10).count());
+        }
+        assertEquals(NUMBER_OF_QUOTES, quoteRepository.count());
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,82 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.nico.quoted.EmbeddedTestConfig;
+import org.nico.quoted.domain.Article;
+import org.nico.quoted.domain.Quote;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RandomQuoteRepositoryTest {
+    private static final int QUOTES = 50;
+
+    private EntityManagerFactory emf;
+    private RandomQuoteRepository randomQuoteRepository;
+
+    @BeforeAll
+    void setUp() {
+        emf = EmbeddedTestConfig.createEntityManagerFactory();
+        randomQuoteRepository = new RandomQuoteRepositoryImplementation(emf);
+
+        Article article = new Article("Test", "https://www.test.com");
+        new RepositoryImplementation<>(Article.class, emf).create(article);
+
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < QUOTES; i++)
+            quotes.add(new Quote("Quote " + i, article));
+        new RepositoryImplementation<>(Quote.class, emf).createAll(quotes);
+    }
+
+    @AfterAll
+    void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    @DisplayName("Random quotes are distinct and fetched with their sources")
+    void readRandom() {
+        List<Quote> quotes = randomQuoteRepository.readRandom(10);
+
+        assertFalse(quotes.isEmpty());
+        assertTrue(quotes.size() <= 10);
+        assertEquals(quotes.size(), new HashSet<>(quotes).size());
+        assertEquals("Test", quotes.get(0).getSource().getTitle()); // Outside of the EntityManager
+    }
+
+    @Test
+    @DisplayName("Random quotes are drawn independently, not as one range of neighbouring ids")
+    void notOneRange() {
+        for (int i = 0; i < 5; i++) {
+            List<Long> ids = randomQuoteRepository.readRandom(10).stream().map(Quote::getId).sorted().toList();
+            assertEquals(10, ids.size());
+            assertTrue(ids.get(ids.size() - 1) - ids.get(0) + 1 > ids.size(), "Contiguous ids " + ids);
+        }
+    }
+
+    @Test
+    @DisplayName("No more random quotes than quotes")
+    void readMoreThanExist() {
+        assertTrue(randomQuoteRepository.readRandom(2 * QUOTES).size() <= QUOTES);
+    }
+
+    @Test
+    @DisplayName("Every quote is drawn eventually")
+    void everyQuoteIsDrawn() {
+        Set<String> drawn = new HashSet<>();
+        for (int i = 0; i < 100 && drawn.size() < QUOTES; i++)
+            randomQuoteRepository.readRandom(10).forEach(quote -> drawn.add(quote.getText()));
+
+        assertEquals(QUOTES, drawn.size());
+    }
+}
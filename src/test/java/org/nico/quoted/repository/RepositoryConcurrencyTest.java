@@ -0,0 +1,86 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nico.quoted.EmbeddedTestConfig;
+import org.nico.quoted.domain.Author;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositoryConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 100;
+
+    private EntityManagerFactory emf;
+    private CRUDRepository<Author> authorRepository;
+
+    @BeforeEach
+    void setUp() {
+        emf = EmbeddedTestConfig.createEntityManagerFactory();
+        authorRepository = new RepositoryImplementation<>(Author.class, emf);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emf.close();
+    }
+
+    @Test
+    @DisplayName("Stress test - one repository used from many threads at once")
+    void concurrentCalls() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            int threadNumber = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    Author author = new Author("Thread " + threadNumber, "Author " + i);
+                    authorRepository.create(author);
+                    assertNotEquals(0, author.getId());
+
+                    author.setFirstName("Updated " + threadNumber);
+                    authorRepository.update(author);
+                    assertEquals("Updated " + threadNumber, authorRepository.readById(author.getId()).orElseThrow().getFirstName());
+
+                    // Every second author is deleted again
+                    if (i % 2 == 0) {
+                        authorRepository.delete(author);
+                        assertTrue(authorRepository.readById(author.getId()).isEmpty());
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures)
+            future.get(60, TimeUnit.SECONDS); // Rethrows failures of the worker threads
+        executor.shutdown();
+
+        assertEquals(THREADS * ITERATIONS / 2, authorRepository.readAll().size());
+    }
+
+    @Test
+    @DisplayName("A failing call rolls back and leaves the repository usable")
+    void rollbackOnFailure() {
+        Author author = new Author("Neil", "Stephenson");
+        authorRepository.create(author);
+
+        Author duplicate = new Author("Neil", "Armstrong");
+        duplicate.setId(author.getId());
+        assertThrows(RuntimeException.class, () -> authorRepository.create(duplicate)); // Detached entity passed to persist
+
+        authorRepository.create(new Author("Neil", "Gaiman"));
+        assertEquals(2, authorRepository.readAll().size());
+    }
+}
@@ -0,0 +1,78 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.nico.quoted.TestConfig;
+
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Startup on the postgresql test database with an existing schema: boot with hbm2ddl.auto=update, which inspects the
+// whole schema, against a boot with hbm2ddl.auto=none followed by SchemaMigration, which only reads schema_version
+// The timings are only logged, with ./gradlew test -Pbenchmarks
+
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "quoted.testDatabase", matches = "postgresql")
+@EnabledIfSystemProperty(named = "quoted.benchmarks", matches = "true")
+class SchemaMigrationBenchmarkTest {
+    private static final int RUNS = 5;
+
+    @BeforeAll
+    void setUp() {
+        SchemaMigration.migrate(TestConfig.TEST_EMF); // Tables were created by TestConfig.TEST_EMF
+    }
+
+    @AfterAll
+    void tearDown() {
+        try (Session session = TestConfig.TEST_EMF.unwrap(SessionFactory.class).openSession()) {
+            session.doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE " + SchemaMigration.HISTORY_TABLE);
+                }
+            });
+        }
+    }
+
+    @Test
+    @DisplayName("Benchmark: Startup with hbm2ddl update against migrations")
+    void startup() {
+        boot("update", false); // Warm up
+        boot("none", true);
+
+        double update = averageMillis("update", false);
+        double migrated = averageMillis("none", true);
+
+        log.info(String.format("Boot of the EntityManagerFactory: hbm2ddl update %.1f ms, none with migrations %.1f ms", update, migrated));
+    }
+
+    private double averageMillis(String hbm2ddl, boolean migrate) {
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++)
+            boot(hbm2ddl, migrate);
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+
+    private void boot(String hbm2ddl, boolean migrate) {
+        EntityManagerFactory emf = new HibernatePersistenceProvider()
+                .createEntityManagerFactory(TestConfig.TEST_DB_NAME, Map.of(AvailableSettings.HBM2DDL_AUTO, hbm2ddl));
+        try {
+            if (migrate)
+                assertEquals(0, SchemaMigration.migrate(emf));
+        } finally {
+            emf.close();
+        }
+    }
+}
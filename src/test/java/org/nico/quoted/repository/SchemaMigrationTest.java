@@ -0,0 +1,106 @@
+package org.nico.quoted.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigrationTest {
+    private static final SchemaMigration.Migration V1 = new SchemaMigration.Migration(1, "create tables", """
+            -- Comment
+            CREATE TABLE item (id bigint NOT NULL PRIMARY KEY, name varchar(255));
+
+            CREATE INDEX item_name_idx ON item (name);
+            """);
+    private static final SchemaMigration.Migration V2 = new SchemaMigration.Migration(2, "add items", """
+            INSERT INTO item VALUES (1, 'first');
+            INSERT INTO item VALUES (2, 'second');
+            """);
+
+    private static int databases;
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:migration_test_" + databases++);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("Pending migrations are applied in the order of their versions, applied ones are skipped")
+    void migrate() throws SQLException {
+        assertEquals(1, new SchemaMigration(List.of(V1)).migrate(connection));
+        assertEquals(1, SchemaMigration.currentVersion(connection));
+
+        assertEquals(1, new SchemaMigration(List.of(V2, V1)).migrate(connection));
+        assertEquals(0, new SchemaMigration(List.of(V1, V2)).migrate(connection));
+        assertEquals(2, SchemaMigration.currentVersion(connection));
+        assertEquals(2, count("item"));
+        assertEquals(2, count(SchemaMigration.HISTORY_TABLE));
+    }
+
+    @Test
+    @DisplayName("A script changed after it was applied is refused")
+    void changedMigration() throws SQLException {
+        new SchemaMigration(List.of(V1)).migrate(connection);
+
+        SchemaMigration.Migration changed = new SchemaMigration.Migration(1, "create tables", V1.sql() + "\nSELECT 1;");
+        assertThrows(IllegalStateException.class, () -> new SchemaMigration(List.of(changed)).migrate(connection));
+    }
+
+    @Test
+    @DisplayName("A failing script is rolled back and leaves the schema at the version before")
+    void failingMigration() throws SQLException {
+        SchemaMigration.Migration failing = new SchemaMigration.Migration(2, "add items", """
+                INSERT INTO item VALUES (1, 'first');
+                INSERT INTO missing VALUES (2, 'second');
+                """);
+        new SchemaMigration(List.of(V1)).migrate(connection);
+
+        assertThrows(SQLException.class, () -> new SchemaMigration(List.of(V1, failing)).migrate(connection));
+        assertEquals(1, SchemaMigration.currentVersion(connection));
+        assertEquals(0, count("item"));
+        assertTrue(connection.getAutoCommit());
+    }
+
+    @Test
+    @DisplayName("Scripts are split into statements, but not within function bodies")
+    void statements() {
+        List<String> statements = SchemaMigration.statements("""
+                -- Comment
+                CREATE TABLE a (id bigint);
+
+                CREATE FUNCTION f() RETURNS trigger AS $$
+                BEGIN
+                    RETURN NEW;
+                END
+                $$ LANGUAGE plpgsql;
+                DROP TABLE a;""");
+
+        assertEquals(3, statements.size());
+        assertEquals("CREATE TABLE a (id bigint)", statements.get(0));
+        assertTrue(statements.get(1).contains("RETURN NEW;"));
+        assertEquals("DROP TABLE a", statements.get(2));
+    }
+
+    private int count(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+}
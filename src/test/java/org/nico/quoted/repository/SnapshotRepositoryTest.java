@@ -0,0 +1,152 @@
+package org.nico.quoted.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.nico.quoted.EmbeddedTestConfig;
+import org.nico.quoted.domain.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SnapshotRepositoryTest {
+    private static final int NUMBER_OF_AUTHORS = 50;
+    private static final int NUMBER_OF_BOOKS = 200;
+    private static final int NUMBER_OF_ARTICLES = 100;
+    private static final int QUOTES_PER_SOURCE = 10;
+
+    private EntityManagerFactory emf;
+    private Statistics statistics;
+    private SnapshotRepository snapshotRepository;
+    private CRUDRepository<Author> authorRepository;
+    private CRUDRepository<Book> bookRepository;
+    private CRUDRepository<Article> articleRepository;
+    private CRUDRepository<Quote> quoteRepository;
+
+    @BeforeAll
+    void setUp() {
+        emf = EmbeddedTestConfig.createEntityManagerFactory();
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        snapshotRepository = new SnapshotRepositoryImplementation(emf);
+        authorRepository = new RepositoryImplementation<>(Author.class, emf);
+        bookRepository = new RepositoryImplementation<>(Book.class, emf);
+        articleRepository = new RepositoryImplementation<>(Article.class, emf);
+        quoteRepository = new RepositoryImplementation<>(Quote.class, emf);
+
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_AUTHORS; i++)
+            authors.add(new Author("First " + i, "Last " + i));
+        authorRepository.createAll(authors);
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_BOOKS; i++)
+            books.add(new Book("Book " + i, authors.get(i % NUMBER_OF_AUTHORS)));
+        bookRepository.createAll(books);
+
+        List<Article> articles = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_ARTICLES; i++)
+            articles.add(new Article("Article " + i, "https://www.test.com/" + i));
+        articleRepository.createAll(articles);
+
+        List<Source> sources = new ArrayList<>(books);
+        sources.addAll(articles);
+        List<Quote> quotes = new ArrayList<>();
+        sources.forEach(source -> {
+            for (int i = 0; i < QUOTES_PER_SOURCE; i++)
+                quotes.add(new Quote("Quote " + i, source));
+        });
+        quoteRepository.createAll(quotes);
+    }
+
+    @AfterAll
+    void tearDown() {
+        emf.close();
+    }
+
+    @BeforeEach
+    void clearStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Snapshot contains all entities and shares the instances between them")
+    void readSnapshot() {
+        SnapshotRepository.Snapshot snapshot = snapshotRepository.readSnapshot();
+
+        assertEquals(NUMBER_OF_AUTHORS, snapshot.authors().size());
+        assertEquals(NUMBER_OF_BOOKS + NUMBER_OF_ARTICLES, snapshot.sources().size());
+        assertEquals((NUMBER_OF_BOOKS + NUMBER_OF_ARTICLES) * QUOTES_PER_SOURCE, snapshot.quotes().size());
+
+        snapshot.quotes().forEach(quote ->
+                assertTrue(snapshot.sources().stream().anyMatch(source -> source == quote.getSource())));
+        snapshot.sources().stream()
+                .filter(Book.class::isInstance)
+                .map(Book.class::cast)
+                .forEach(book -> assertTrue(snapshot.authors().stream().anyMatch(author -> author == book.getAuthor())));
+    }
+
+    @Test
+    @DisplayName("Chunks contain the sources first, then all quotes in order, sharing the instances of the sources")
+    void readSnapshotInChunks() {
+        List<SnapshotRepository.Snapshot> chunks = new ArrayList<>();
+        snapshotRepository.readSnapshot(700, chunks::add);
+
+        SnapshotRepository.Snapshot first = chunks.get(0);
+        assertEquals(NUMBER_OF_AUTHORS, first.authors().size());
+        assertEquals(NUMBER_OF_BOOKS + NUMBER_OF_ARTICLES, first.sources().size());
+        assertTrue(first.quotes().isEmpty());
+
+        List<Quote> quotes = new ArrayList<>();
+        chunks.stream().skip(1).forEach(chunk -> {
+            assertTrue(chunk.sources().isEmpty());
+            assertTrue(chunk.quotes().size() <= 700);
+            quotes.addAll(chunk.quotes());
+        });
+        assertEquals(5, chunks.size() - 1); // 3000 quotes
+        assertEquals((NUMBER_OF_BOOKS + NUMBER_OF_ARTICLES) * QUOTES_PER_SOURCE, quotes.size());
+        for (int i = 1; i < quotes.size(); i++)
+            assertTrue(quotes.get(i - 1).getId() < quotes.get(i).getId());
+        quotes.forEach(quote ->
+                assertTrue(first.sources().stream().anyMatch(source -> source == quote.getSource())));
+    }
+
+    @Test
+    @DisplayName("Benchmark - single pass snapshot against the former startup reads")
+    void startupBenchmark() {
+        // Former ClientModel.readRepositories(): books and articles twice, authors, then quotes with a select per source
+        Instant start = Instant.now();
+        bookRepository.readAll();
+        articleRepository.readAll();
+        bookRepository.readAll();
+        authorRepository.readAll();
+        articleRepository.readAll();
+        quoteRepository.readAll();
+        Duration formerDuration = Duration.between(start, Instant.now());
+        long formerStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = Instant.now();
+        snapshotRepository.readSnapshot();
+        Duration snapshotDuration = Duration.between(start, Instant.now());
+        long snapshotStatements = statistics.getPrepareStatementCount();
+
+        log.info("Startup reads: former " + formerDuration.toMillis() + " ms with " + formerStatements
+                + " statements, snapshot " + snapshotDuration.toMillis() + " ms with " + snapshotStatements + " statements");
+
+        assertEquals(3, snapshotStatements);
+        assertTrue(snapshotStatements < formerStatements);
+    }
+}
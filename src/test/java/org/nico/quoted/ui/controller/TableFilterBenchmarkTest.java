@@ -0,0 +1,171 @@
+package org.nico.quoted.ui.controller;
+
+import javafx.application.Platform;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.scene.Scene;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.Stage;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.nico.quoted.domain.*;
+import org.nico.quoted.model.ClientModel;
+import org.nico.quoted.model.RepositoryModel;
+import org.nico.quoted.repository.CRUDRepository;
+import org.nico.quoted.repository.SnapshotRepository;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Measures how long a search takes until the quote table is laid out again, for a TableFilter over 100k quotes and for
+// new lists set as the items of the table, as before. Needs a headless JavaFX toolkit: ./gradlew test -Pheadless
+// The timings are only logged, with ./gradlew test -Pheadless -Pbenchmarks
+
+@Slf4j
+@EnabledIfSystemProperty(named = "glass.platform", matches = "Monocle")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TableFilterBenchmarkTest {
+    private static final int QUOTES = 100_000;
+    private static final int SOURCES = 1_000;
+    private static final int RUNS = 20;
+    private static final List<String> QUERIES = List.of("tolkien", "quote 4711", "lorem", "xqz", "");
+
+    private ClientModel model;
+    private final List<Stage> stages = new ArrayList<>();
+
+    @BeforeAll
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException e) {
+            // Toolkit already started by another test
+        }
+
+        Random random = new Random(42);
+        String[] words = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", "sed", "do"};
+
+        List<Author> authors = new ArrayList<>();
+        List<Source> sources = new ArrayList<>();
+        for (int i = 0; i < SOURCES; i++) {
+            if (i % 10 == 0)
+                authors.add(new Author("Author", i == 0 ? "Tolkien" : "Number " + i));
+            sources.add(new Book("Book " + i, authors.get(authors.size() - 1)));
+        }
+
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < QUOTES; i++) {
+            StringBuilder text = new StringBuilder("Quote " + i);
+            for (int j = 0; j < 8; j++)
+                text.append(' ').append(words[random.nextInt(words.length)]);
+            quotes.add(new Quote(text.toString(), sources.get(random.nextInt(SOURCES))));
+        }
+
+        RepositoryModel repositoryModel = mock(RepositoryModel.class);
+        SnapshotRepository snapshotRepository = mock(SnapshotRepository.class);
+        when(repositoryModel.getAuthorRepository()).thenReturn(mock(CRUDRepository.class));
+        when(repositoryModel.getBookRepository()).thenReturn(mock(CRUDRepository.class));
+        when(repositoryModel.getArticleRepository()).thenReturn(mock(CRUDRepository.class));
+        when(repositoryModel.getQuoteRepository()).thenReturn(mock(CRUDRepository.class));
+        when(repositoryModel.getSnapshotRepository()).thenReturn(snapshotRepository);
+        when(snapshotRepository.readSnapshot()).thenReturn(new SnapshotRepository.Snapshot(authors, sources, quotes));
+
+        model = onFxThread(() -> new ClientModel(repositoryModel));
+    }
+
+    @AfterAll
+    void tearDown() throws Exception {
+        onFxThread(() -> {
+            stages.forEach(Stage::close);
+            return null;
+        });
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "quoted.benchmarks", matches = "true")
+    @DisplayName("Benchmark: Filter latency of a TableFilter against rebuilt lists over 100k quotes")
+    void filterLatency() throws Exception {
+        TableView<Quote> filteredTable = onFxThread(this::showTable);
+        TableFilter<Quote> quoteFilter = onFxThread(() -> new TableFilter<>(model.getQuotes(), filteredTable));
+        TableView<Quote> rebuiltTable = onFxThread(this::showTable);
+
+        for (String query : QUERIES) {
+            double filterMillis = averageMillis(() -> {
+                quoteFilter.filter(model.quoteSearchFilter(query));
+                layout(filteredTable);
+            });
+            double rebuildMillis = averageMillis(() -> {
+                rebuiltTable.setItems(model.searchQuotes(query));
+                rebuiltTable.getColumns().get(0).setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getText()));
+                layout(rebuiltTable);
+            });
+            log.info(String.format("Filter \"%s\": %d rows, filter %.3f ms, rebuilt list %.3f ms",
+                    query, filteredTable.getItems().size(), filterMillis, rebuildMillis));
+
+            assertEquals(rebuiltTable.getItems().size(), filteredTable.getItems().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Test: A filtered table follows quotes added to the model")
+    void filteredTableFollowsChanges() throws Exception {
+        TableView<Quote> table = onFxThread(this::showTable);
+        TableFilter<Quote> quoteFilter = onFxThread(() -> new TableFilter<>(model.getQuotes(), table));
+
+        int found = onFxThread(() -> {
+            quoteFilter.filter(model.quoteSearchFilter("searchable"));
+            model.addQuote(new Quote("Searchable", model.getSources().get(0)));
+            return table.getItems().size();
+        });
+        assertEquals(1, found);
+
+        int remaining = onFxThread(() -> {
+            model.deleteQuote(table.getItems().get(0));
+            return table.getItems().size();
+        });
+        assertEquals(0, remaining);
+    }
+
+    // Each table in a stage of its own, so that it is laid out like in the app
+    private TableView<Quote> showTable() {
+        TableView<Quote> table = new TableView<>();
+        TableColumn<Quote, String> column = new TableColumn<>("Quote");
+        column.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getText()));
+        table.getColumns().add(column);
+
+        Stage stage = new Stage();
+        stage.setScene(new Scene(table, 600, 400));
+        stage.show();
+        stages.add(stage);
+        layout(table);
+        return table;
+    }
+
+    private static void layout(TableView<Quote> table) {
+        table.applyCss();
+        table.layout();
+    }
+
+    // Average over the runs on the FX thread, after one run to warm up
+    private double averageMillis(Runnable filter) throws Exception {
+        return onFxThread(() -> {
+            filter.run();
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++)
+                filter.run();
+            return (System.nanoTime() - start) / 1e6 / RUNS;
+        });
+    }
+
+    private static <T> T onFxThread(Callable<T> callable) throws Exception {
+        FutureTask<T> task = new FutureTask<>(callable);
+        Platform.runLater(task);
+        return task.get(1, TimeUnit.MINUTES);
+    }
+}
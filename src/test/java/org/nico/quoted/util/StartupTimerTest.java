@@ -0,0 +1,38 @@
+package org.nico.quoted.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupTimerTest {
+
+    // Other tests record phases of the same startup, and finish stops recording for the whole JVM
+    @BeforeEach
+    @AfterEach
+    void reset() {
+        StartupTimer.reset();
+    }
+
+    @Test
+    void recordsPhasesUntilFinished() {
+        assertEquals("read", StartupTimer.time("Test phase", () -> "read"));
+        StartupTimer.record("Test chunks", Duration.ofMillis(5));
+        StartupTimer.record("Test chunks", Duration.ofMillis(7));
+
+        assertTrue(StartupTimer.phases().containsKey("Test phase"));
+        assertEquals(Duration.ofMillis(12), StartupTimer.phases().get("Test chunks"));
+        assertNull(StartupTimer.total());
+
+        StartupTimer.finish();
+        StartupTimer.record("Test reload", Duration.ofMillis(1));
+
+        assertNotNull(StartupTimer.total());
+        assertFalse(StartupTimer.phases().containsKey("Test reload"));
+        assertEquals(List.of("Test phase", "Test chunks"), List.copyOf(StartupTimer.phases().keySet()));
+    }
+}